@@ -0,0 +1,182 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.util.LruCache;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.BitmapLoader;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.common.util.Util;
+import androidx.media3.datasource.DataSourceBitmapLoader;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.File;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Session bitmap loader backed by the plugin's artwork tiers, so the notification, the lock screen
+ * and connected controllers reuse the covers the browse tree already cached instead of downloading
+ * them again. Provider and https URIs resolve through {@link ArtworkRepository} (disk), decoded
+ * bitmaps are kept in a small memory LRU, and concurrent loads of one cover share a decode.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class ArtworkBitmapLoader implements BitmapLoader {
+
+    private static final int MEMORY_CACHE_BYTES = 8 * 1024 * 1024;
+    private static final int LOADER_THREADS = 2;
+    // Plain https artwork can end up anywhere the session shows, so size it for the largest surface
+    private static final ArtworkVariant DEFAULT_VARIANT = ArtworkVariant.LOCK_SCREEN;
+
+    private final Context context;
+    private final ListeningExecutorService executor;
+    private final BitmapLoader fallback;
+    private final LruCache<String, Bitmap> memoryCache = new LruCache<String, Bitmap>(
+        MEMORY_CACHE_BYTES
+    ) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getAllocationByteCount();
+        }
+    };
+    private final Map<String, ListenableFuture<Bitmap>> pending = new HashMap<>();
+
+    public ArtworkBitmapLoader(Context context) {
+        this.context = context.getApplicationContext();
+        this.executor = MoreExecutors.listeningDecorator(
+            Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+                Thread thread = new Thread(runnable, "artwork-bitmaps");
+                thread.setDaemon(true);
+                return thread;
+            })
+        );
+        this.fallback = new DataSourceBitmapLoader(
+            executor,
+            SharedHttpClient.dataSourceFactory(this.context)
+        );
+    }
+
+    @Override
+    public boolean supportsMimeType(String mimeType) {
+        return Util.isBitmapFactorySupportedMimeType(mimeType);
+    }
+
+    @Override
+    public ListenableFuture<Bitmap> decodeBitmap(byte[] data) {
+        // A colliding key would show one cover's bitmap for another, so key on a real digest
+        String key;
+        try {
+            key = "data:" + Digests.sha1(data);
+        } catch (NoSuchAlgorithmException ex) {
+            return executor.submit(() -> decodeData(data));
+        }
+        return load(key, () -> decodeData(data));
+    }
+
+    private static Bitmap decodeData(byte[] data) throws IOException {
+        Bitmap bitmap = decode(data, DEFAULT_VARIANT.sizePx);
+        if (bitmap == null) {
+            throw new IOException("Could not decode artwork data");
+        }
+        return bitmap;
+    }
+
+    @Override
+    public ListenableFuture<Bitmap> loadBitmap(Uri uri) {
+        String source = ArtworkProvider.sourceOf(context, uri);
+        ArtworkVariant variant = ArtworkProvider.variantOf(context, uri);
+        if (source == null) {
+            String scheme = uri.getScheme();
+            if (!"http".equals(scheme) && !"https".equals(scheme)) {
+                return fallback.loadBitmap(uri);
+            }
+            source = uri.toString();
+        }
+
+        String artworkUrl = source;
+        ArtworkVariant size = variant != null ? variant : DEFAULT_VARIANT;
+        return load(size.requestUrl(artworkUrl), () -> {
+            File file = ArtworkRepository.get(context).getFile(artworkUrl, size);
+            Bitmap bitmap = file != null ? decode(file, size.sizePx) : null;
+            if (bitmap == null) {
+                throw new IOException("Artwork unavailable: " + artworkUrl);
+            }
+            return bitmap;
+        });
+    }
+
+    public void release() {
+        executor.shutdownNow();
+        memoryCache.evictAll();
+    }
+
+    private ListenableFuture<Bitmap> load(String key, BitmapTask task) {
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            return Futures.immediateFuture(cached);
+        }
+
+        synchronized (pending) {
+            ListenableFuture<Bitmap> inFlight = pending.get(key);
+            if (inFlight != null) {
+                return inFlight;
+            }
+            ListenableFuture<Bitmap> future = executor.submit(() -> {
+                Bitmap bitmap = task.load();
+                memoryCache.put(key, bitmap);
+                return bitmap;
+            });
+            pending.put(key, future);
+            future.addListener(
+                () -> {
+                    synchronized (pending) {
+                        pending.remove(key);
+                    }
+                },
+                MoreExecutors.directExecutor()
+            );
+            return future;
+        }
+    }
+
+    private static Bitmap decode(byte[] data, int maxDimPx) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, bounds);
+        BitmapFactory.Options options = sampledOptions(bounds, maxDimPx);
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+
+    private static Bitmap decode(File file, int maxDimPx) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), bounds);
+        return BitmapFactory.decodeFile(file.getPath(), sampledOptions(bounds, maxDimPx));
+    }
+
+    // Cached files are already sized per variant; this only matters for larger sources
+    private static BitmapFactory.Options sampledOptions(
+        BitmapFactory.Options bounds,
+        int maxDimPx
+    ) {
+        int maxDim = Math.max(bounds.outWidth, bounds.outHeight);
+        int sampleSize = 1;
+        while (maxDim / (sampleSize * 2) >= maxDimPx) {
+            sampleSize *= 2;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        return options;
+    }
+
+    private interface BitmapTask {
+        Bitmap load() throws IOException;
+    }
+}
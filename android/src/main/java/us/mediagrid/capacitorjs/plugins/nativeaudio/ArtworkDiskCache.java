@@ -0,0 +1,394 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Disk cache of browse artwork. Stores the already downsampled and recompressed bytes under the
+ * SHA-1 of the artwork URL, so a restarted service shows covers without touching the network or
+ * decoding a bitmap.
+ *
+ * <p>Recency lives in an append-only journal ({@code PUT}, {@code READ}, {@code DEL} lines) that
+ * is replayed on open and compacted once it is mostly redundant; eviction drops the least recently
+ * read entries until the cache fits {@link #MAX_BYTES}. Entries keep their ETag/Last-Modified so
+ * stale ones can be revalidated with a conditional request.
+ *
+ * <p>{@code READ} lines are buffered and written with the next {@code PUT} or {@code DEL}, once
+ * {@link #READ_FLUSH_COUNT} have piled up or after {@link #READ_FLUSH_MS}, so a cache hit does not
+ * cost a disk write. Reads still buffered when the process dies only lose their recency.
+ */
+public class ArtworkDiskCache {
+
+    private static final String TAG = "ArtworkDiskCache";
+    private static final String DIRECTORY = "artwork";
+    private static final String JOURNAL = "journal";
+    private static final String DATA_SUFFIX = ".img";
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+    private static final long FRESH_MS = 24L * 60 * 60 * 1000;
+    private static final int COMPACT_THRESHOLD = 2000;
+    private static final int READ_FLUSH_COUNT = 64;
+    private static final long READ_FLUSH_MS = 30_000;
+
+    private static volatile ArtworkDiskCache instance;
+
+    private final File directory;
+    private final File journalFile;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private Writer journal;
+    private final StringBuilder pendingReads = new StringBuilder();
+    private int pendingReadCount = 0;
+    private long pendingSinceNs = 0;
+    private long totalBytes = 0;
+    private int redundantOps = 0;
+
+    ArtworkDiskCache(File directory) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL);
+        readJournal();
+        deleteOrphans();
+        compactJournal();
+        trimToSize();
+    }
+
+    public static ArtworkDiskCache get(Context context) {
+        if (instance == null) {
+            synchronized (ArtworkDiskCache.class) {
+                if (instance == null) {
+                    File dir = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+                    if (!dir.exists() && !dir.mkdirs()) {
+                        Log.w(TAG, "Could not create cache directory " + dir);
+                    }
+                    instance = new ArtworkDiskCache(dir);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized Entry get(String url) {
+        String key = key(url);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!dataFile(key).exists()) {
+            remove(key);
+            return null;
+        }
+        recordRead(key);
+        return entry;
+    }
+
+    /** True if the URL is cached; unlike {@link #get} this does not count as a use. */
+    public synchronized boolean contains(String url) {
+        return entries.containsKey(key(url));
+    }
+
+    public File file(Entry entry) {
+        return dataFile(entry.key);
+    }
+
+    public synchronized void put(String url, byte[] data, String etag, String lastModified) {
+        String key = key(url);
+        File temp = new File(directory, key + "." + System.nanoTime() + ".tmp");
+        try {
+            try (OutputStream output = new FileOutputStream(temp)) {
+                output.write(data);
+            }
+            if (!temp.renameTo(dataFile(key))) {
+                throw new IOException("Could not move " + temp + " into place");
+            }
+        } catch (IOException ex) {
+            Log.w(TAG, "Could not store artwork " + key, ex);
+            temp.delete();
+            remove(key);
+            return;
+        }
+
+        record(new Entry(key, data.length, etag, lastModified, System.currentTimeMillis()));
+        trimToSize();
+    }
+
+    /** A 304 proved the stored bytes current; restart their freshness window. */
+    public synchronized void markRevalidated(Entry entry) {
+        if (entries.get(entry.key) != entry) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        record(new Entry(entry.key, entry.size, entry.etag, entry.lastModified, now));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        totalBytes = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.equals(journalFile)) {
+                    file.delete();
+                }
+            }
+        }
+        compactJournal();
+    }
+
+    private void record(Entry entry) {
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            totalBytes -= previous.size;
+            redundantOps++;
+        }
+        totalBytes += entry.size;
+        append(
+            "PUT\t" +
+            entry.key +
+            "\t" +
+            entry.size +
+            "\t" +
+            field(entry.etag) +
+            "\t" +
+            field(entry.lastModified) +
+            "\t" +
+            entry.storedAt
+        );
+    }
+
+    private void remove(String key) {
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            totalBytes -= previous.size;
+        }
+        dataFile(key).delete();
+        append("DEL\t" + key);
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > MAX_BYTES && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.size;
+            dataFile(eldest.key).delete();
+            append("DEL\t" + eldest.key);
+        }
+    }
+
+    private void recordRead(String key) {
+        redundantOps++;
+        if (shouldCompact()) {
+            compactJournal();
+            return;
+        }
+        long now = System.nanoTime();
+        if (pendingReadCount == 0) {
+            pendingSinceNs = now;
+        }
+        pendingReads.append("READ\t").append(key).append('\n');
+        pendingReadCount++;
+        if (
+            pendingReadCount >= READ_FLUSH_COUNT ||
+            now - pendingSinceNs >= READ_FLUSH_MS * 1_000_000L
+        ) {
+            write(null);
+        }
+    }
+
+    private void append(String line) {
+        if (line.startsWith("DEL")) {
+            redundantOps++;
+        }
+        if (shouldCompact()) {
+            compactJournal();
+            return;
+        }
+        write(line);
+    }
+
+    private boolean shouldCompact() {
+        return redundantOps >= COMPACT_THRESHOLD && redundantOps > entries.size();
+    }
+
+    // Writes the buffered reads first, so replay sees them in the order they happened
+    private void write(String line) {
+        try {
+            if (journal == null) {
+                journal = new FileWriter(journalFile, true);
+            }
+            if (pendingReadCount > 0) {
+                journal.write(pendingReads.toString());
+            }
+            if (line != null) {
+                journal.write(line);
+                journal.write('\n');
+            }
+            journal.flush();
+        } catch (IOException ex) {
+            // A missed line only costs that entry's recency, or the entry itself, on the next open
+            Log.w(TAG, "Could not append to journal", ex);
+            closeJournal();
+        } finally {
+            clearPendingReads();
+        }
+    }
+
+    private void clearPendingReads() {
+        pendingReads.setLength(0);
+        pendingReadCount = 0;
+    }
+
+    private void readJournal() {
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", -1);
+                if (parts.length < 2) {
+                    continue;
+                }
+                String key = parts[1];
+                if ("PUT".equals(parts[0]) && parts.length == 6) {
+                    Entry entry = new Entry(
+                        key,
+                        Long.parseLong(parts[2]),
+                        unfield(parts[3]),
+                        unfield(parts[4]),
+                        Long.parseLong(parts[5])
+                    );
+                    Entry previous = entries.put(key, entry);
+                    totalBytes += entry.size - (previous != null ? previous.size : 0);
+                } else if ("READ".equals(parts[0])) {
+                    entries.get(key);
+                } else if ("DEL".equals(parts[0])) {
+                    Entry previous = entries.remove(key);
+                    if (previous != null) {
+                        totalBytes -= previous.size;
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            // A torn last line is expected after a crash; anything worse starts the cache over
+            Log.w(TAG, "Journal unreadable, keeping " + entries.size() + " entries", ex);
+        }
+    }
+
+    private void deleteOrphans() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (file.equals(journalFile)) {
+                continue;
+            }
+            boolean known = name.endsWith(DATA_SUFFIX) &&
+                entries.containsKey(name.substring(0, name.length() - DATA_SUFFIX.length()));
+            if (!known) {
+                file.delete();
+            }
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!dataFile(entry.key).exists()) {
+                iterator.remove();
+                totalBytes -= entry.size;
+            }
+        }
+    }
+
+    // Rewrites the journal as one PUT per live entry, oldest first, so replay keeps LRU order
+    private void compactJournal() {
+        // The in-memory order already holds every buffered read
+        clearPendingReads();
+        closeJournal();
+        File temp = new File(directory, JOURNAL + ".tmp");
+        try (Writer writer = new FileWriter(temp, false)) {
+            for (Entry entry : entries.values()) {
+                writer.write(
+                    "PUT\t" +
+                    entry.key +
+                    "\t" +
+                    entry.size +
+                    "\t" +
+                    field(entry.etag) +
+                    "\t" +
+                    field(entry.lastModified) +
+                    "\t" +
+                    entry.storedAt +
+                    "\n"
+                );
+            }
+        } catch (IOException ex) {
+            Log.w(TAG, "Could not compact journal", ex);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(journalFile)) {
+            Log.w(TAG, "Could not move compacted journal into place");
+            temp.delete();
+            return;
+        }
+        redundantOps = 0;
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException ignored) {}
+        journal = null;
+    }
+
+    private File dataFile(String key) {
+        return new File(directory, key + DATA_SUFFIX);
+    }
+
+    private static String field(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+
+    private static String unfield(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    static String key(String url) {
+        return Digests.sha1(url);
+    }
+
+    public static class Entry {
+
+        public final String key;
+        public final long size;
+        public final String etag;
+        public final String lastModified;
+        public final long storedAt;
+
+        Entry(String key, long size, String etag, String lastModified, long storedAt) {
+            this.key = key;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() - storedAt < FRESH_MS;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.util.Base64;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.List;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Serves browse artwork from {@link ArtworkDiskCache} as {@code content://} URIs, so MediaItems
+ * carry a short URI across Binder instead of the image bytes, and the host loads only the covers
+ * it shows. A URI names the {@link ArtworkVariant} and its cache key and keeps the source URL,
+ * which lets a cover that is not cached yet be downloaded on first open.
+ *
+ * <p>The provider is not exported; trusted browsers get read access through {@link #grantAccess}
+ * while they are connected. Every URI is signed with a per-install secret, so even a granted
+ * package can only open URIs this app handed out and cannot make it fetch other URLs.
+ */
+public class ArtworkProvider extends ContentProvider {
+
+    private static final String TAG = "ArtworkProvider";
+    private static final String AUTHORITY_SUFFIX = ".nativeaudio.artwork";
+    private static final String PARAM_SOURCE = "src";
+    private static final String PARAM_SIGNATURE = "sig";
+    private static final String PREFS_NAME = "native_audio_artwork";
+    private static final String KEY_SECRET = "uri_secret";
+    private static final String HMAC = "HmacSHA256";
+    private static final int SECRET_BYTES = 32;
+
+    private static volatile byte[] secret;
+
+    public static Uri uriFor(Context context, String artworkUrl, ArtworkVariant variant) {
+        return new Uri.Builder()
+            .scheme("content")
+            .authority(authority(context))
+            .appendPath(variant.pathSegment())
+            .appendPath(ArtworkDiskCache.key(variant.requestUrl(artworkUrl)))
+            .appendQueryParameter(PARAM_SOURCE, artworkUrl)
+            .appendQueryParameter(PARAM_SIGNATURE, sign(context, variant, artworkUrl))
+            .build();
+    }
+
+    /** The same artwork for another surface; URIs this provider did not hand out are returned. */
+    @Nullable
+    public static Uri withVariant(Context context, @Nullable Uri uri, ArtworkVariant variant) {
+        String source = sourceOf(context, uri);
+        return source != null ? uriFor(context, source, variant) : uri;
+    }
+
+    /** The source URL behind one of this provider's URIs, or null for any other URI. */
+    @Nullable
+    public static String sourceOf(Context context, @Nullable Uri uri) {
+        if (uri == null || !authority(context).equals(uri.getAuthority())) {
+            return null;
+        }
+        return uri.getQueryParameter(PARAM_SOURCE);
+    }
+
+    @Nullable
+    public static ArtworkVariant variantOf(Context context, @Nullable Uri uri) {
+        if (uri == null || !authority(context).equals(uri.getAuthority())) {
+            return null;
+        }
+        List<String> segments = uri.getPathSegments();
+        return segments.size() == 2 ? ArtworkVariant.fromPathSegment(segments.get(0)) : null;
+    }
+
+    /** Lets another package (a media browser) read the artwork URIs this provider hands out. */
+    public static void grantAccess(Context context, String packageName) {
+        try {
+            context.grantUriPermission(
+                packageName,
+                root(context),
+                Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_PREFIX_URI_PERMISSION
+            );
+        } catch (SecurityException ex) {
+            Log.w(TAG, "grantAccess failed for " + packageName, ex);
+        }
+    }
+
+    /** Undoes {@link #grantAccess} once the browser has disconnected. */
+    public static void revokeAccess(Context context, String packageName) {
+        // Per-package revocation needs API 26; older releases keep the grant until the app dies
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        try {
+            context.revokeUriPermission(
+                packageName,
+                root(context),
+                Intent.FLAG_GRANT_READ_URI_PERMISSION
+            );
+        } catch (SecurityException ex) {
+            Log.w(TAG, "revokeAccess failed for " + packageName, ex);
+        }
+    }
+
+    private static Uri root(Context context) {
+        return new Uri.Builder().scheme("content").authority(authority(context)).build();
+    }
+
+    private static String sign(Context context, ArtworkVariant variant, String artworkUrl) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(new SecretKeySpec(secret(context), HMAC));
+            byte[] digest = mac.doFinal(
+                (variant.pathSegment() + "\n" + artworkUrl).getBytes(StandardCharsets.UTF_8)
+            );
+            return Base64.encodeToString(
+                digest,
+                Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP
+            );
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 unavailable", ex);
+        }
+    }
+
+    private static byte[] secret(Context context) {
+        byte[] current = secret;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (ArtworkProvider.class) {
+            if (secret == null) {
+                SharedPreferences prefs = context
+                    .getApplicationContext()
+                    .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                String stored = prefs.getString(KEY_SECRET, null);
+                if (stored == null) {
+                    byte[] generated = new byte[SECRET_BYTES];
+                    new SecureRandom().nextBytes(generated);
+                    stored = Base64.encodeToString(generated, Base64.NO_WRAP);
+                    prefs.edit().putString(KEY_SECRET, stored).commit();
+                }
+                secret = Base64.decode(stored, Base64.NO_WRAP);
+            }
+            return secret;
+        }
+    }
+
+    private static String authority(Context context) {
+        return context.getPackageName() + AUTHORITY_SUFFIX;
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode)
+        throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("Artwork is read-only: " + uri);
+        }
+
+        String source = uri.getQueryParameter(PARAM_SOURCE);
+        ArtworkVariant variant = variantOf(getContext(), uri);
+        String key = uri.getLastPathSegment();
+        String signature = uri.getQueryParameter(PARAM_SIGNATURE);
+        // Only a signature made with this install's secret proves the app handed the URI out
+        if (
+            source == null ||
+            variant == null ||
+            signature == null ||
+            !key.equals(ArtworkDiskCache.key(variant.requestUrl(source))) ||
+            !MessageDigest.isEqual(
+                signature.getBytes(StandardCharsets.UTF_8),
+                sign(getContext(), variant, source).getBytes(StandardCharsets.UTF_8)
+            )
+        ) {
+            throw new FileNotFoundException("Unknown artwork " + uri);
+        }
+
+        File file = ArtworkRepository.get(getContext()).getFile(source, variant);
+        if (file == null) {
+            throw new FileNotFoundException("Artwork unavailable: " + source);
+        }
+        return ParcelFileDescriptor.open(file, ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        return "image/*";
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(
+        @NonNull Uri uri,
+        @Nullable String[] projection,
+        @Nullable String selection,
+        @Nullable String[] selectionArgs,
+        @Nullable String sortOrder
+    ) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        throw new UnsupportedOperationException("Artwork is read-only");
+    }
+
+    @Override
+    public int delete(
+        @NonNull Uri uri,
+        @Nullable String selection,
+        @Nullable String[] selectionArgs
+    ) {
+        throw new UnsupportedOperationException("Artwork is read-only");
+    }
+
+    @Override
+    public int update(
+        @NonNull Uri uri,
+        @Nullable ContentValues values,
+        @Nullable String selection,
+        @Nullable String[] selectionArgs
+    ) {
+        throw new UnsupportedOperationException("Artwork is read-only");
+    }
+}
@@ -0,0 +1,277 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Fetches browse artwork into {@link ArtworkDiskCache}, downsampled by {@link ArtworkTranscoder}.
+ * Both the library callback (to warm covers ahead of time) and {@link ArtworkProvider} (to answer
+ * a host that asks for one) go through here, so a cover is downloaded and decoded once.
+ *
+ * <p>Each {@link ArtworkVariant} is cached under its own request URL. Storage objects are fetched
+ * already resized from the render endpoint; when that endpoint refuses (image transformations are
+ * not enabled on every project) the original object is fetched and resized locally instead.
+ * That copy is cached under a key of its own and revalidated against the original object, so the
+ * refusing endpoint is not asked again each time the entry goes stale.
+ */
+public class ArtworkRepository {
+
+    private static final String TAG = "ArtworkRepository";
+    private static final int ARTWORK_MAX_BYTES = 6 * 1024 * 1024;
+    private static final long ARTWORK_TIMEOUT_MS = 7000;
+    private static final long ARTWORK_SETTLE_WINDOW_MS = 5000;
+
+    private static volatile ArtworkRepository instance;
+
+    private final Context context;
+    private final ArtworkDiskCache diskCache;
+    private final Map<ArtworkVariant, ArtworkTranscoder> transcoders = new EnumMap<>(
+        ArtworkVariant.class
+    );
+    private final SingleFlight<File> flights = new SingleFlight<>(ARTWORK_SETTLE_WINDOW_MS);
+    // Revalidation is never urgent; one thread keeps it from competing with first loads
+    private final ExecutorService revalidator = Executors.newSingleThreadExecutor();
+    // Every browse of a stale cover lands here; each key is queued once until its check finishes
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private OkHttpClient httpClient;
+
+    private ArtworkRepository(Context context) {
+        this.context = context;
+        this.diskCache = ArtworkDiskCache.get(context);
+    }
+
+    public static ArtworkRepository get(Context context) {
+        if (instance == null) {
+            synchronized (ArtworkRepository.class) {
+                if (instance == null) {
+                    instance = new ArtworkRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the cached file for an artwork URL at the given surface's size, downloading it first
+     * on a miss. Blocks.
+     */
+    @Nullable
+    public File getFile(String artworkUrl, ArtworkVariant variant) {
+        String requestUrl = variant.requestUrl(artworkUrl);
+        File stored = getStoredFile(artworkUrl, variant);
+        if (stored != null) {
+            return stored;
+        }
+
+        try {
+            return flights.run(requestUrl, () -> {
+                File again = getStoredFile(artworkUrl, variant);
+                if (again != null) {
+                    return again;
+                }
+                String key = requestUrl;
+                ArtworkDownload download = download(requestUrl, variant, null);
+                if (download == null && !requestUrl.equals(artworkUrl)) {
+                    key = fallbackKey(artworkUrl, variant);
+                    download = download(artworkUrl, variant, null);
+                }
+                if (download == null || download.bytes == null) {
+                    return null;
+                }
+                diskCache.put(key, download.bytes, download.etag, download.lastModified);
+                ArtworkDiskCache.Entry entry = diskCache.get(key);
+                return entry != null ? diskCache.file(entry) : null;
+            });
+        } catch (Exception ex) {
+            Log.w(TAG, "getFile failed: " + requestUrl, ex);
+            return null;
+        }
+    }
+
+    public boolean isStored(String artworkUrl, ArtworkVariant variant) {
+        String requestUrl = variant.requestUrl(artworkUrl);
+        return (
+            diskCache.contains(requestUrl) ||
+            (!requestUrl.equals(artworkUrl) &&
+                diskCache.contains(fallbackKey(artworkUrl, variant)))
+        );
+    }
+
+    // Disk only, never the network; stale entries are served and revalidated in the background
+    @Nullable
+    private File getStoredFile(String artworkUrl, ArtworkVariant variant) {
+        String requestUrl = variant.requestUrl(artworkUrl);
+        File file = getStoredFile(requestUrl, requestUrl, variant);
+        if (file == null && !requestUrl.equals(artworkUrl)) {
+            file = getStoredFile(fallbackKey(artworkUrl, variant), artworkUrl, variant);
+        }
+        return file;
+    }
+
+    @Nullable
+    private File getStoredFile(String key, String fetchUrl, ArtworkVariant variant) {
+        ArtworkDiskCache.Entry entry = diskCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.isFresh()) {
+            revalidate(key, fetchUrl, variant, entry);
+        }
+        return diskCache.file(entry);
+    }
+
+    // A render URL cannot be the key of a locally resized original, so the two never collide
+    private static String fallbackKey(String artworkUrl, ArtworkVariant variant) {
+        return variant.pathSegment() + ":" + artworkUrl;
+    }
+
+    private void revalidate(
+        String key,
+        String fetchUrl,
+        ArtworkVariant variant,
+        ArtworkDiskCache.Entry entry
+    ) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        revalidator.execute(() -> {
+            try {
+                ArtworkDownload download = download(fetchUrl, variant, entry);
+                if (download == null) {
+                    return;
+                }
+                if (download.notModified) {
+                    diskCache.markRevalidated(entry);
+                    return;
+                }
+                Log.i(TAG, "revalidate: " + fetchUrl + " changed");
+                diskCache.put(key, download.bytes, download.etag, download.lastModified);
+            } finally {
+                revalidating.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Downloads and recompresses artwork. With {@code stored} set the request is conditional, and
+     * a 304 comes back as {@link ArtworkDownload#notModified} without a body.
+     */
+    @Nullable
+    private ArtworkDownload download(
+        String artworkUrl,
+        ArtworkVariant variant,
+        @Nullable ArtworkDiskCache.Entry stored
+    ) {
+        if (artworkUrl == null || artworkUrl.isEmpty()) {
+            return null;
+        }
+        if (!artworkUrl.startsWith("http://") && !artworkUrl.startsWith("https://")) {
+            return null;
+        }
+
+        Request.Builder requestBuilder = new Request.Builder()
+            .url(artworkUrl)
+            .get()
+            .header("Accept", "image/*");
+        if (stored != null && stored.etag != null) {
+            requestBuilder.header("If-None-Match", stored.etag);
+        }
+        if (stored != null && stored.lastModified != null) {
+            requestBuilder.header("If-Modified-Since", stored.lastModified);
+        }
+        Request request = requestBuilder.build();
+
+        try (Response response = httpClient().newCall(request).execute()) {
+            int code = response.code();
+            if (code == 304 && stored != null) {
+                return new ArtworkDownload(null, stored.etag, stored.lastModified, true);
+            }
+            if (!response.isSuccessful()) {
+                Log.w(TAG, "download http " + code + " for " + artworkUrl);
+                return null;
+            }
+
+            ResponseBody body = response.body();
+            if (body == null) {
+                return null;
+            }
+
+            long contentLength = body.contentLength();
+            ArtworkTranscoder transcoder = transcoder(variant);
+            ArtworkTranscoder.Buffer raw = transcoder.read(body.byteStream(), contentLength);
+            if (raw == null) {
+                Log.w(TAG, "download too large " + contentLength + " for " + artworkUrl);
+                return null;
+            }
+
+            try {
+                byte[] compressed = transcoder.transcode(raw);
+                return new ArtworkDownload(
+                    compressed != null ? compressed : raw.toByteArray(),
+                    response.header("ETag"),
+                    response.header("Last-Modified"),
+                    false
+                );
+            } finally {
+                transcoder.release(raw);
+            }
+        } catch (Exception ex) {
+            Log.w(TAG, "download failed: " + artworkUrl, ex);
+            return null;
+        }
+    }
+
+    private ArtworkTranscoder transcoder(ArtworkVariant variant) {
+        synchronized (transcoders) {
+            ArtworkTranscoder transcoder = transcoders.get(variant);
+            if (transcoder == null) {
+                transcoder = new ArtworkTranscoder(
+                    variant.sizePx,
+                    variant.quality,
+                    ARTWORK_MAX_BYTES
+                );
+                transcoders.put(variant, transcoder);
+            }
+            return transcoder;
+        }
+    }
+
+    private synchronized OkHttpClient httpClient() {
+        if (httpClient == null) {
+            httpClient = SharedHttpClient.get(context)
+                .newBuilder()
+                .connectTimeout(ARTWORK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .readTimeout(ARTWORK_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .build();
+        }
+        return httpClient;
+    }
+
+    private static class ArtworkDownload {
+
+        final byte[] bytes;
+        final String etag;
+        final String lastModified;
+        final boolean notModified;
+
+        ArtworkDownload(byte[] bytes, String etag, String lastModified, boolean notModified) {
+            this.bytes = bytes;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.notModified = notModified;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns downloaded artwork into small browse-sized JPEG/PNG bytes without ever holding a
+ * full-resolution bitmap. Bounds are read first; the decode then subsamples by a power of two and
+ * lets density scaling land exactly on {@code maxDimPx}, so each decode needs at most one
+ * {@code maxDimPx}-square ARGB bitmap. Decode targets and download buffers are pooled, which
+ * keeps a whole page of covers within a fixed memory ceiling.
+ */
+public class ArtworkTranscoder {
+
+    private static final String TAG = "ArtworkTranscoder";
+    private static final int POOLED_BITMAPS = 2;
+    private static final int POOLED_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final int UNKNOWN_LENGTH_BUFFER = 64 * 1024;
+    private static final int DECODE_TEMP_STORAGE = 16 * 1024;
+    // Density scaling rounds, so pooled targets leave room for a pixel either way
+    private static final int BITMAP_SLACK_PX = 2;
+
+    private final int maxDimPx;
+    private final int quality;
+    private final int maxBytes;
+    private final ArrayDeque<Bitmap> bitmapPool = new ArrayDeque<>();
+    private final ByteArrayPool bufferPool = new ByteArrayPool(POOLED_BUFFER_BYTES);
+
+    public ArtworkTranscoder(int maxDimPx, int quality, int maxBytes) {
+        this.maxDimPx = maxDimPx;
+        this.quality = quality;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Reads a response body into a pooled buffer, sized up front when the length is known.
+     * Returns null when the body is larger than {@code maxBytes}. Pass the result to
+     * {@link #release} when done.
+     */
+    @Nullable
+    public Buffer read(InputStream input, long contentLength) throws IOException {
+        if (contentLength > maxBytes) {
+            return null;
+        }
+        int initial = contentLength > 0 ? (int) contentLength : UNKNOWN_LENGTH_BUFFER;
+        byte[] data = bufferPool.acquire(initial);
+        int length = 0;
+        try {
+            while (true) {
+                if (length == data.length) {
+                    // A presized buffer is usually exact, so probe for the end before growing
+                    int next = input.read();
+                    if (next == -1) {
+                        break;
+                    }
+                    if (length >= maxBytes) {
+                        bufferPool.release(data);
+                        return null;
+                    }
+                    byte[] grown = bufferPool.acquire(Math.min(maxBytes, Math.max(length * 2, 1)));
+                    System.arraycopy(data, 0, grown, 0, length);
+                    bufferPool.release(data);
+                    data = grown;
+                    data[length++] = (byte) next;
+                }
+                int read = input.read(data, length, data.length - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+        } catch (IOException ex) {
+            bufferPool.release(data);
+            throw ex;
+        }
+        return new Buffer(data, length);
+    }
+
+    public void release(Buffer buffer) {
+        bufferPool.release(buffer.data);
+    }
+
+    /** Downsamples and recompresses; null if the image cannot be decoded or stays too large. */
+    @Nullable
+    public byte[] transcode(Buffer raw) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(raw.data, 0, raw.length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            Log.w(TAG, "transcode: unreadable image bounds");
+            return null;
+        }
+
+        int maxDim = Math.max(bounds.outWidth, bounds.outHeight);
+        int sampleSize = sampleSize(maxDim, maxDimPx);
+        int sampledDim = maxDim / sampleSize;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        if (sampledDim > maxDimPx) {
+            options.inScaled = true;
+            options.inDensity = sampledDim;
+            options.inTargetDensity = maxDimPx;
+        }
+        options.inMutable = true;
+        byte[] tempStorage = bufferPool.acquire(DECODE_TEMP_STORAGE);
+        options.inTempStorage = tempStorage;
+
+        Bitmap target = acquireBitmap();
+        options.inBitmap = target;
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeByteArray(raw.data, 0, raw.length, options);
+        } catch (IllegalArgumentException ex) {
+            // The pooled bitmap did not fit this decode; fall back to a fresh allocation
+            releaseBitmap(target);
+            target = null;
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeByteArray(raw.data, 0, raw.length, options);
+        } finally {
+            bufferPool.release(tempStorage);
+        }
+
+        if (bitmap == null) {
+            Log.w(TAG, "transcode: decode failed");
+            if (target != null) {
+                releaseBitmap(target);
+            }
+            return null;
+        }
+
+        try {
+            return compress(bitmap);
+        } finally {
+            if (bitmap == target) {
+                releaseBitmap(bitmap);
+            } else {
+                bitmap.recycle();
+                if (target != null) {
+                    releaseBitmap(target);
+                }
+            }
+        }
+    }
+
+    // The largest power of two that still leaves the long side at or above maxDimPx
+    static int sampleSize(int maxDim, int maxDimPx) {
+        int sampleSize = 1;
+        while (maxDim / (sampleSize * 2) >= maxDimPx) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @Nullable
+    private byte[] compress(Bitmap bitmap) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(maxDimPx * maxDimPx / 4);
+        Bitmap.CompressFormat format = bitmap.hasAlpha()
+            ? Bitmap.CompressFormat.PNG
+            : Bitmap.CompressFormat.JPEG;
+        int formatQuality = format == Bitmap.CompressFormat.JPEG ? quality : 100;
+        if (!bitmap.compress(format, formatQuality, outputStream)) {
+            Log.w(TAG, "transcode: compress failed");
+            return null;
+        }
+
+        byte[] result = outputStream.toByteArray();
+        if (result.length > maxBytes) {
+            Log.w(TAG, "transcode: result too large " + result.length);
+            return null;
+        }
+        return result;
+    }
+
+    private Bitmap acquireBitmap() {
+        synchronized (bitmapPool) {
+            Bitmap pooled = bitmapPool.poll();
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        int side = maxDimPx + BITMAP_SLACK_PX;
+        return Bitmap.createBitmap(side, side, Bitmap.Config.ARGB_8888);
+    }
+
+    private void releaseBitmap(Bitmap bitmap) {
+        synchronized (bitmapPool) {
+            if (bitmapPool.size() < POOLED_BITMAPS && bitmap.isMutable() && !bitmap.isRecycled()) {
+                bitmapPool.push(bitmap);
+                return;
+            }
+        }
+        bitmap.recycle();
+    }
+
+    public static class Buffer {
+
+        public final byte[] data;
+        public final int length;
+
+        Buffer(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        public byte[] toByteArray() {
+            byte[] copy = new byte[length];
+            System.arraycopy(data, 0, copy, 0, length);
+            return copy;
+        }
+    }
+
+    /** Keeps released arrays up to a byte ceiling and hands out the smallest one that fits. */
+    static class ByteArrayPool {
+
+        private final int maxPooledBytes;
+        private final List<byte[]> arrays = new ArrayList<>();
+        private int pooledBytes = 0;
+
+        ByteArrayPool(int maxPooledBytes) {
+            this.maxPooledBytes = maxPooledBytes;
+        }
+
+        synchronized byte[] acquire(int minLength) {
+            byte[] best = null;
+            for (byte[] array : arrays) {
+                if (array.length >= minLength && (best == null || array.length < best.length)) {
+                    best = array;
+                }
+            }
+            if (best == null) {
+                return new byte[minLength];
+            }
+            arrays.remove(best);
+            pooledBytes -= best.length;
+            return best;
+        }
+
+        synchronized void release(byte[] array) {
+            if (array.length > maxPooledBytes) {
+                return;
+            }
+            // Make room by dropping the smallest arrays; large ones are the expensive ones to redo
+            while (pooledBytes + array.length > maxPooledBytes && !arrays.isEmpty()) {
+                byte[] smallest = arrays.get(0);
+                for (byte[] candidate : arrays) {
+                    if (candidate.length < smallest.length) {
+                        smallest = candidate;
+                    }
+                }
+                arrays.remove(smallest);
+                pooledBytes -= smallest.length;
+            }
+            arrays.add(array);
+            pooledBytes += array.length;
+        }
+    }
+}
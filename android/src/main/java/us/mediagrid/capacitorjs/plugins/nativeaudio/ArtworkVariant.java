@@ -0,0 +1,66 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import androidx.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * The artwork size each display surface needs. Supabase storage objects are requested from the
+ * image render endpoint at that size, so the server downscales instead of sending the original;
+ * other URLs are fetched as they are and only downscaled locally.
+ */
+public enum ArtworkVariant {
+    AUTO_GRID(320, 70),
+    NOTIFICATION(256, 75),
+    LOCK_SCREEN(720, 80);
+
+    private static final String OBJECT_PATH = "/storage/v1/object/";
+    private static final String RENDER_PATH = "/storage/v1/render/image/";
+
+    public final int sizePx;
+    public final int quality;
+
+    ArtworkVariant(int sizePx, int quality) {
+        this.sizePx = sizePx;
+        this.quality = quality;
+    }
+
+    /** The URL to download for this surface; a render URL for storage objects, else {@code url}. */
+    public String requestUrl(String url) {
+        int objectAt = url.indexOf(OBJECT_PATH);
+        if (objectAt < 0) {
+            return url;
+        }
+        // Public and signed objects map to the matching render path; a signed URL keeps its token
+        String rest = url.substring(objectAt + OBJECT_PATH.length());
+        if (!rest.startsWith("public/") && !rest.startsWith("sign/")) {
+            return url;
+        }
+        return (
+            url.substring(0, objectAt) +
+            RENDER_PATH +
+            rest +
+            (rest.contains("?") ? "&" : "?") +
+            "width=" +
+            sizePx +
+            "&height=" +
+            sizePx +
+            "&quality=" +
+            quality +
+            "&resize=cover"
+        );
+    }
+
+    public String pathSegment() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    @Nullable
+    public static ArtworkVariant fromPathSegment(@Nullable String segment) {
+        for (ArtworkVariant variant : values()) {
+            if (variant.pathSegment().equals(segment)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+}
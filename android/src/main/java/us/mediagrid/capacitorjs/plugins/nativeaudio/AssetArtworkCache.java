@@ -0,0 +1,146 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.LruCache;
+import androidx.annotation.Nullable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Artwork bundled under {@code assets/public}, read and downsampled on a background thread and
+ * kept per artwork source. Metadata rebuilds on the main thread only look here; a miss starts a
+ * load and the caller is told when the bytes are ready, so asset I/O and full-size byte copies
+ * never run on the main looper.
+ */
+public class AssetArtworkCache {
+
+    private static final String TAG = "AssetArtworkCache";
+    private static final int CACHE_BYTES = 2 * 1024 * 1024;
+    private static final int MAX_ASSET_BYTES = 8 * 1024 * 1024;
+    private static final ArtworkVariant VARIANT = ArtworkVariant.LOCK_SCREEN;
+    private static final long RETRY_BACKOFF_MS = 30_000;
+    private static final long MAX_RETRY_BACKOFF_MS = 15 * 60 * 1000;
+
+    public interface Callback {
+        void onLoaded(String artworkSource);
+    }
+
+    private static volatile AssetArtworkCache instance;
+
+    private final Context context;
+    private final ArtworkTranscoder transcoder = new ArtworkTranscoder(
+        VARIANT.sizePx,
+        VARIANT.quality,
+        MAX_ASSET_BYTES
+    );
+    private final LruCache<String, byte[]> cache = new LruCache<String, byte[]>(CACHE_BYTES) {
+        @Override
+        protected int sizeOf(String key, byte[] value) {
+            return value.length;
+        }
+    };
+    private final Map<String, List<Callback>> loading = new HashMap<>();
+    // Failed loads are not retried on every metadata poll, only once their backoff has passed
+    private final Map<String, Failure> failed = new HashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private AssetArtworkCache(Context context) {
+        this.context = context;
+    }
+
+    public static AssetArtworkCache get(Context context) {
+        if (instance == null) {
+            synchronized (AssetArtworkCache.class) {
+                if (instance == null) {
+                    instance = new AssetArtworkCache(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Nullable
+    public byte[] getCached(String artworkSource) {
+        return cache.get(artworkSource);
+    }
+
+    /** Loads the artwork in the background; {@code callback} runs on the main thread on success. */
+    public void load(String artworkSource, Callback callback) {
+        synchronized (loading) {
+            Failure failure = failed.get(artworkSource);
+            if (failure != null && SystemClock.elapsedRealtime() < failure.retryAt) {
+                return;
+            }
+            List<Callback> callbacks = loading.get(artworkSource);
+            if (callbacks != null) {
+                callbacks.add(callback);
+                return;
+            }
+            callbacks = new ArrayList<>();
+            callbacks.add(callback);
+            loading.put(artworkSource, callbacks);
+        }
+
+        executor.execute(() -> {
+            byte[] artwork = read(artworkSource);
+            List<Callback> callbacks;
+            synchronized (loading) {
+                callbacks = loading.remove(artworkSource);
+                if (artwork == null) {
+                    Failure previous = failed.get(artworkSource);
+                    failed.put(artworkSource, new Failure(previous));
+                    return;
+                }
+                failed.remove(artworkSource);
+                cache.put(artworkSource, artwork);
+            }
+            mainHandler.post(() -> {
+                for (Callback pending : callbacks) {
+                    pending.onLoaded(artworkSource);
+                }
+            });
+        });
+    }
+
+    private static class Failure {
+
+        final long backoffMs;
+        final long retryAt;
+
+        Failure(@Nullable Failure previous) {
+            backoffMs = previous == null
+                ? RETRY_BACKOFF_MS
+                : Math.min(previous.backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            retryAt = SystemClock.elapsedRealtime() + backoffMs;
+        }
+    }
+
+    @Nullable
+    private byte[] read(String artworkSource) {
+        try (InputStream input = context.getAssets().open("public/" + artworkSource)) {
+            ArtworkTranscoder.Buffer raw = transcoder.read(input, -1);
+            if (raw == null) {
+                Log.w(TAG, "Artwork asset too large: " + artworkSource);
+                return null;
+            }
+            try {
+                return transcoder.transcode(raw);
+            } finally {
+                transcoder.release(raw);
+            }
+        } catch (Exception ex) {
+            Log.w(TAG, "Could not load the artwork source " + artworkSource, ex);
+            return null;
+        }
+    }
+}
@@ -5,10 +5,9 @@ import android.os.Looper;
 import android.util.Log;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.PluginCall;
-import com.getcapacitor.plugin.util.HttpRequestHandler;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class AudioMetadata {
 
@@ -145,28 +144,32 @@ public class AudioMetadata {
 
     private boolean makeUpdateRequest() {
         Log.i(TAG, "Getting metadata from URL " + updateUrl);
-        HttpURLConnection urlConnection = null;
 
-        try {
-            URL url = new URL(updateUrl);
-            urlConnection = (HttpURLConnection) url.openConnection();
-            urlConnection.setRequestProperty("Accept", "application/json");
-
-            InputStream errorStream = urlConnection.getErrorStream();
-
-            if (errorStream != null) {
+        Request request = new Request.Builder()
+            .url(updateUrl)
+            .get()
+            .header("Accept", "application/json")
+            .build();
+
+        try (
+            Response response = SharedHttpClient.get(pluginOwner.getContext())
+                .newCall(request)
+                .execute()
+        ) {
+            ResponseBody body = response.body();
+            String payload = body != null ? body.string() : "";
+
+            if (!response.isSuccessful()) {
                 Log.e(
                     TAG,
                     String.format(
                         "The metadata update server returned a status of %s with the message %s",
-                        urlConnection.getResponseCode(),
-                        HttpRequestHandler.readStreamAsString(errorStream)
+                        response.code(),
+                        payload
                     )
                 );
             } else {
-                JSObject json = new JSObject(
-                    HttpRequestHandler.readStreamAsString(urlConnection.getInputStream())
-                );
+                JSObject json = new JSObject(payload);
 
                 Log.i(TAG, json.toString());
 
@@ -180,10 +183,6 @@ public class AudioMetadata {
             }
         } catch (Exception ex) {
             Log.e(TAG, "An error occurred trying to get updated metadata", ex);
-        } finally {
-            if (urlConnection != null) {
-                urlConnection.disconnect();
-            }
         }
 
         return false;
@@ -9,10 +9,16 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.offline.Download;
+import androidx.media3.exoplayer.offline.DownloadService;
 import androidx.media3.session.MediaController;
 import androidx.media3.session.SessionCommand;
 import androidx.media3.session.SessionResult;
 import androidx.media3.session.SessionToken;
+import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
@@ -62,6 +68,7 @@ public class AudioPlayerPlugin extends Plugin {
                 return;
             }
 
+            boolean isBackgroundMusic = call.getBoolean("isBackgroundMusic", false);
             AudioSource audioSource = new AudioSource(
                 this,
                 sourceId,
@@ -75,8 +82,12 @@ public class AudioPlayerPlugin extends Plugin {
                     call.getInt("metadataUpdateInterval")
                 ),
                 call.getBoolean("useForNotification", false),
-                call.getBoolean("isBackgroundMusic", false),
-                call.getBoolean("loop", false)
+                isBackgroundMusic,
+                call.getBoolean("loop", false),
+                BufferProfile.fromId(
+                    call.getString("bufferProfile"),
+                    BufferProfile.defaultFor(isBackgroundMusic)
+                )
             );
 
             if (audioSources.count() == 0 && !audioSource.useForNotification) {
@@ -365,12 +376,161 @@ public class AudioPlayerPlugin extends Plugin {
 
             Log.i(TAG, "setAutoAuthConfig: url=" + (supabaseUrl != null) + ", anonKey=" + (supabaseAnonKey != null) + ", token=" + (accessToken != null));
             AutoAuthStore.save(getContext(), supabaseUrl, supabaseAnonKey, accessToken);
+            CatalogSyncJobService.schedule(getContext());
             call.resolve();
         } catch (Exception ex) {
             call.reject("There was an issue setting auto auth config.", ex);
         }
     }
 
+    @PluginMethod
+    public void getMediaCacheStats(PluginCall call) {
+        executorService.execute(() -> {
+            try {
+                MediaCache.Stats stats = MediaCache.get(getContext()).stats();
+
+                JSObject result = new JSObject();
+                result.put("usedBytes", stats.usedBytes);
+                result.put("maxBytes", stats.maxBytes);
+                result.put("evictionPolicy", stats.evictionPolicy);
+                result.put("cachedItems", stats.cachedItems);
+                result.put("cacheHitBytes", stats.cacheHitBytes);
+                result.put("networkBytes", stats.networkBytes);
+                call.resolve(result);
+            } catch (Exception ex) {
+                call.reject("There was an issue getting media cache stats.", ex);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void setMediaCacheConfig(PluginCall call) {
+        Long maxBytes = call.getLong("maxBytes");
+        String evictionPolicy = call.getString("evictionPolicy");
+
+        executorService.execute(() -> {
+            try {
+                MediaCache.get(getContext()).configure(maxBytes, evictionPolicy);
+                call.resolve();
+            } catch (Exception ex) {
+                call.reject("There was an issue setting the media cache config.", ex);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void clearMediaCache(PluginCall call) {
+        executorService.execute(() -> {
+            try {
+                MediaCache.get(getContext()).clear();
+                call.resolve();
+            } catch (Exception ex) {
+                call.reject("There was an issue clearing the media cache.", ex);
+            }
+        });
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    @PluginMethod
+    public void enqueueDownload(PluginCall call) {
+        String episodeId = call.getString("episodeId");
+        String url = call.getString("url");
+        if (episodeId == null || url == null) {
+            call.reject("An episodeId and url are required to download an episode.");
+            return;
+        }
+
+        try {
+            String artworkUrl = call.getString("artworkUrl");
+            DownloadService.sendAddDownload(
+                getContext(),
+                EpisodeDownloadService.class,
+                EpisodeDownloads.buildRequest(
+                    episodeId,
+                    url,
+                    call.getString("title"),
+                    call.getString("subtitle"),
+                    artworkUrl
+                ),
+                false
+            );
+            if (artworkUrl != null && artworkUrl.startsWith("http")) {
+                // The downloaded node should show covers offline too
+                executorService.execute(() -> {
+                    ArtworkRepository artwork = ArtworkRepository.get(getContext());
+                    artwork.getFile(artworkUrl, ArtworkVariant.AUTO_GRID);
+                    artwork.getFile(artworkUrl, ArtworkVariant.LOCK_SCREEN);
+                });
+            }
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject("There was an issue enqueueing the download.", ex);
+        }
+    }
+
+    @PluginMethod
+    public void pauseDownload(PluginCall call) {
+        setDownloadStopReason(call, EpisodeDownloads.STOP_REASON_PAUSED, "pausing");
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    @PluginMethod
+    public void resumeDownload(PluginCall call) {
+        setDownloadStopReason(call, Download.STOP_REASON_NONE, "resuming");
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    @PluginMethod
+    public void removeDownload(PluginCall call) {
+        String episodeId = call.getString("episodeId");
+        if (episodeId == null) {
+            call.reject("An episodeId is required to remove a download.");
+            return;
+        }
+
+        try {
+            DownloadService.sendRemoveDownload(
+                getContext(),
+                EpisodeDownloadService.class,
+                episodeId,
+                false
+            );
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject("There was an issue removing the download.", ex);
+        }
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    @PluginMethod
+    public void getDownloads(PluginCall call) {
+        executorService.execute(() -> {
+            try {
+                JSArray downloads = new JSArray();
+                for (Download download : EpisodeDownloads.get(getContext()).getDownloads()) {
+                    JSObject metadata = JSObject.fromJSONObject(
+                        EpisodeDownloads.metadataOf(download)
+                    );
+
+                    JSObject item = new JSObject();
+                    item.put("episodeId", download.request.id);
+                    item.put("url", download.request.uri.toString());
+                    item.put("state", EpisodeDownloads.stateName(download));
+                    item.put("bytesDownloaded", download.getBytesDownloaded());
+                    item.put("contentLength", download.contentLength);
+                    item.put("percentDownloaded", download.getPercentDownloaded());
+                    item.put("title", metadata.getString("title"));
+                    item.put("subtitle", metadata.getString("subtitle"));
+                    item.put("artworkUrl", metadata.getString("artworkUrl"));
+                    downloads.put(item);
+                }
+                call.resolve(new JSObject().put("downloads", downloads));
+            } catch (Exception ex) {
+                call.reject("There was an issue getting the downloads.", ex);
+            }
+        });
+    }
+
     @PluginMethod
     public void updateMetadata(PluginCall call) {
         try {
@@ -546,6 +706,50 @@ public class AudioPlayerPlugin extends Plugin {
         }
     }
 
+    @PluginMethod
+    public void getBufferStats(PluginCall call) {
+        try {
+            if (!audioSourceExists("getBufferStats", call)) {
+                return;
+            }
+
+            postToLooper("getBufferStats", call, () -> {
+                AudioSource audioSource = audioSources.get(audioId(call));
+
+                if (!audioSource.useForNotification) {
+                    resolveBufferStats(call, audioSource.getBufferStats());
+                    return;
+                }
+
+                // The primary source plays on the session player, which lives in the service
+                ListenableFuture<SessionResult> commandResult =
+                    audioMediaController.sendCustomCommand(
+                        new SessionCommand(MediaSessionCallback.GET_BUFFER_STATS, new Bundle()),
+                        new Bundle()
+                    );
+
+                commandResult.addListener(
+                    () -> {
+                        try {
+                            SessionResult result = commandResult.get();
+                            resolveBufferStats(
+                                call,
+                                result.resultCode == SessionResult.RESULT_SUCCESS
+                                    ? result.extras
+                                    : null
+                            );
+                        } catch (Exception ex) {
+                            call.reject("There was an issue getting the buffer stats.", ex);
+                        }
+                    },
+                    MoreExecutors.directExecutor()
+                );
+            });
+        } catch (Exception ex) {
+            call.reject("There was an issue getting the buffer stats.", ex);
+        }
+    }
+
     @PluginMethod
     public void destroy(PluginCall call) {
         try {
@@ -787,6 +991,43 @@ public class AudioPlayerPlugin extends Plugin {
         audioMediaController = null;
     }
 
+    @OptIn(markerClass = UnstableApi.class)
+    private void setDownloadStopReason(PluginCall call, int stopReason, String action) {
+        String episodeId = call.getString("episodeId");
+        if (episodeId == null) {
+            call.reject("An episodeId is required when " + action + " a download.");
+            return;
+        }
+
+        try {
+            DownloadService.sendSetStopReason(
+                getContext(),
+                EpisodeDownloadService.class,
+                episodeId,
+                stopReason,
+                false
+            );
+            call.resolve();
+        } catch (Exception ex) {
+            call.reject("There was an issue " + action + " the download.", ex);
+        }
+    }
+
+    private void resolveBufferStats(PluginCall call, @Nullable Bundle stats) {
+        if (stats == null) {
+            call.reject("The audio source has not been initialized.");
+            return;
+        }
+
+        JSObject result = new JSObject();
+        result.put("profile", stats.getString(BufferMonitor.KEY_PROFILE));
+        result.put("timeToFirstAudioMs", stats.getLong(BufferMonitor.KEY_TIME_TO_FIRST_AUDIO_MS));
+        result.put("allocatedBytes", stats.getLong(BufferMonitor.KEY_ALLOCATED_BYTES));
+        result.put("targetBufferBytes", stats.getLong(BufferMonitor.KEY_TARGET_BUFFER_BYTES));
+        result.put("bufferedDurationMs", stats.getLong(BufferMonitor.KEY_BUFFERED_DURATION_MS));
+        call.resolve(result);
+    }
+
     private String audioId(PluginCall call) {
         return call.getString("audioId");
     }
@@ -1,9 +1,13 @@
 package us.mediagrid.capacitorjs.plugins.nativeaudio;
 
 import android.app.PendingIntent;
+import android.content.ComponentName;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
 import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.OptIn;
@@ -27,6 +31,27 @@ public class AudioPlayerService extends MediaLibraryService {
     private PendingIntent sessionActivityPendingIntent = null;
     private boolean playlistActive = false;
     private ExoPlayer player = null;
+    private MediaSessionCallback mediaSessionCallback = null;
+    private ArtworkBitmapLoader artworkBitmapLoader = null;
+    private QueuePreloader queuePreloader = null;
+    private BufferMonitor bufferMonitor = null;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final AutoAuthStore.OnChangeListener authChangeListener = config ->
+        mainHandler.post(() -> {
+            Log.i(TAG, "Auto auth config changed");
+            if (mediaSessionCallback != null) {
+                mediaSessionCallback.onAuthConfigChanged();
+            }
+            applyStoredLoginState();
+        });
+
+    private final CatalogSync.OnSyncListener catalogSyncListener = () ->
+        mainHandler.post(() -> {
+            if (mediaSessionCallback != null) {
+                mediaSessionCallback.onCatalogSynced();
+            }
+        });
 
     private final Player.Listener playerListener = new Player.Listener() {
         @Override
@@ -68,6 +93,9 @@ public class AudioPlayerService extends MediaLibraryService {
         }
 
         ensureSession();
+        AutoAuthStore.addListener(authChangeListener);
+        CatalogSync.addListener(catalogSyncListener);
+        CatalogSyncJobService.schedule(this);
     }
 
     @Override
@@ -123,6 +151,10 @@ public class AudioPlayerService extends MediaLibraryService {
     public void onDestroy() {
         Log.i(TAG, "Service being destroyed");
 
+        AutoAuthStore.removeListener(authChangeListener);
+        CatalogSync.removeListener(catalogSyncListener);
+        mainHandler.removeCallbacksAndMessages(null);
+
         AudioSources audioSources = getAudioSourcesFromMediaSession();
 
         if (audioSources != null) {
@@ -130,6 +162,11 @@ public class AudioPlayerService extends MediaLibraryService {
             audioSources.destroyAllNonNotificationSources();
         }
 
+        if (queuePreloader != null) {
+            queuePreloader.release();
+            queuePreloader = null;
+        }
+
         if (player != null) {
             player.removeListener(playerListener);
             player.release();
@@ -141,6 +178,16 @@ public class AudioPlayerService extends MediaLibraryService {
             mediaSession = null;
         }
 
+        if (mediaSessionCallback != null) {
+            mediaSessionCallback.release();
+            mediaSessionCallback = null;
+        }
+
+        if (artworkBitmapLoader != null) {
+            artworkBitmapLoader.release();
+            artworkBitmapLoader = null;
+        }
+
         super.onDestroy();
     }
 
@@ -167,7 +214,11 @@ public class AudioPlayerService extends MediaLibraryService {
         }
 
         Log.i(TAG, "Creating MediaLibrarySession with Goalhanger Red notification");
+        Bundle metaData = loadServiceMetaData();
+        bufferMonitor = new BufferMonitor(loadBufferProfile(metaData));
         player = new ExoPlayer.Builder(this)
+            .setMediaSourceFactory(SharedHttpClient.mediaSourceFactory(this))
+            .setLoadControl(bufferMonitor.getLoadControl())
             .setAudioAttributes(
                 new AudioAttributes.Builder()
                     .setUsage(C.USAGE_MEDIA)
@@ -180,18 +231,63 @@ public class AudioPlayerService extends MediaLibraryService {
             .setWakeMode(C.WAKE_MODE_NETWORK)
             .build();
         player.setPlayWhenReady(false);
+        player.addAnalyticsListener(bufferMonitor);
         player.addListener(playerListener);
+        queuePreloader = new QueuePreloader(this, player);
+        player.addListener(queuePreloader);
 
-        MediaLibrarySession.Builder builder = new MediaLibrarySession.Builder(this, player, new MediaSessionCallback(this));
+        mediaSessionCallback = new MediaSessionCallback(
+            this,
+            PrefetchBudget.fromMetaData(metaData)
+        );
+        MediaLibrarySession.Builder builder = new MediaLibrarySession.Builder(this, player, mediaSessionCallback);
         if (sessionActivityPendingIntent != null) {
             builder.setSessionActivity(sessionActivityPendingIntent);
         }
         builder.setMediaButtonPreferences(buildMediaButtonPreferences());
         builder.setCustomLayout(buildCustomLayout(playlistActive));
+        // Notification and session artwork come from the same caches as the browse tree
+        artworkBitmapLoader = new ArtworkBitmapLoader(this);
+        builder.setBitmapLoader(artworkBitmapLoader);
         mediaSession = builder.build();
         applyStoredLoginState();
     }
 
+    @Nullable
+    private Bundle loadServiceMetaData() {
+        try {
+            return getPackageManager()
+                .getServiceInfo(
+                    new ComponentName(this, AudioPlayerService.class),
+                    PackageManager.GET_META_DATA
+                )
+                .metaData;
+        } catch (PackageManager.NameNotFoundException ex) {
+            Log.w(TAG, "Service info unavailable, using default prefetch budget and buffering", ex);
+            return null;
+        }
+    }
+
+    // Episodes are long-form speech, so the session player buffers deep unless the app overrides it
+    private BufferProfile loadBufferProfile(@Nullable Bundle metaData) {
+        String id = metaData != null ? metaData.getString(BufferProfile.META_PROFILE) : null;
+        try {
+            return BufferProfile.fromId(id, BufferProfile.PODCAST);
+        } catch (IllegalArgumentException ex) {
+            Log.w(TAG, "Unknown buffer profile " + id + ", using podcast");
+            return BufferProfile.PODCAST;
+        }
+    }
+
+    /** Buffer measurements of the session player; null before the session exists. */
+    @Nullable
+    public Bundle getBufferStats() {
+        if (bufferMonitor == null || player == null) {
+            return null;
+        }
+        return bufferMonitor.getStats(player);
+    }
+
     private ImmutableList<CommandButton> buildMediaButtonPreferences() {
         return ImmutableList.of(
             new CommandButton.Builder(CommandButton.ICON_SKIP_BACK_15)
@@ -227,7 +323,7 @@ public class AudioPlayerService extends MediaLibraryService {
         }
 
         AutoAuthConfig config = AutoAuthStore.load(getApplicationContext());
-        boolean loggedIn = config != null && config.accessToken != null && !config.accessToken.isEmpty();
+        boolean loggedIn = config.hasAccessToken();
 
         Bundle current = mediaSession.getSessionExtras();
         Bundle merged = new Bundle(current != null ? current : Bundle.EMPTY);
@@ -1,18 +1,20 @@
 package us.mediagrid.capacitorjs.plugins.nativeaudio;
 
 import android.content.Context;
-import android.net.Uri;
 import android.os.Binder;
+import android.os.Bundle;
 import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
 import com.getcapacitor.PluginCall;
 import androidx.media3.common.AudioAttributes;
 import androidx.media3.common.C;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.MediaMetadata;
 import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
 import androidx.media3.exoplayer.ExoPlayer;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
+import java.util.Objects;
 
 public class AudioSource extends Binder {
 
@@ -24,6 +26,7 @@ public class AudioSource extends Binder {
     public boolean useForNotification;
     public boolean isBackgroundMusic;
     public boolean loopAudio = false;
+    public BufferProfile bufferProfile;
 
     public String onPlaybackStatusChangeCallbackId;
     public String onReadyCallbackId;
@@ -35,6 +38,7 @@ public class AudioSource extends Binder {
 
     private Player player;
     private PlayerEventListener playerEventListener;
+    private BufferMonitor bufferMonitor;
 
     private boolean isPlaying = false;
     private boolean isStopped = true;
@@ -46,7 +50,8 @@ public class AudioSource extends Binder {
         AudioMetadata audioMetadata,
         boolean useForNotification,
         boolean isBackgroundMusic,
-        boolean loopAudio
+        boolean loopAudio,
+        BufferProfile bufferProfile
     ) {
         this.pluginOwner = pluginOwner;
         this.id = id;
@@ -55,10 +60,12 @@ public class AudioSource extends Binder {
         this.useForNotification = useForNotification;
         this.isBackgroundMusic = isBackgroundMusic;
         this.loopAudio = loopAudio;
+        this.bufferProfile = bufferProfile;
 
         this.audioMetadata.setPluginOwner(pluginOwner).setUpdateCallBack(this::updateMetadata);
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     public void initialize(Context context) {
         if (useForNotification || player != null) {
             return;
@@ -66,7 +73,14 @@ public class AudioSource extends Binder {
 
         setIsStopped();
 
-        player = new ExoPlayer.Builder(context).setWakeMode(C.WAKE_MODE_NETWORK).build();
+        bufferMonitor = new BufferMonitor(bufferProfile);
+        ExoPlayer exoPlayer = new ExoPlayer.Builder(context)
+            .setMediaSourceFactory(SharedHttpClient.mediaSourceFactory(context))
+            .setLoadControl(bufferMonitor.getLoadControl())
+            .setWakeMode(C.WAKE_MODE_NETWORK)
+            .build();
+        exoPlayer.addAnalyticsListener(bufferMonitor);
+        player = exoPlayer;
         setPlayerAttributes();
 
         player.prepare();
@@ -233,6 +247,7 @@ public class AudioSource extends Binder {
             player.release();
             player = null;
             playerEventListener = null;
+            bufferMonitor = null;
         }
     }
 
@@ -244,12 +259,25 @@ public class AudioSource extends Binder {
         return playerEventListener;
     }
 
+    /** Buffer measurements of this source's own player; null until it is initialized. */
+    @Nullable
+    public Bundle getBufferStats() {
+        if (bufferMonitor == null || player == null) {
+            return null;
+        }
+        return bufferMonitor.getStats(player);
+    }
+
     public boolean isInitialized() {
         return getPlayer() != null;
     }
 
     public MediaItem buildMediaItem() {
-        return new MediaItem.Builder().setMediaMetadata(getMediaMetadata()).setUri(source).build();
+        return new MediaItem.Builder()
+            .setMediaMetadata(getMediaMetadata())
+            .setUri(source)
+            .setCustomCacheKey(MediaCache.sourceKey(source))
+            .build();
     }
 
     public void destroy() {
@@ -274,14 +302,46 @@ public class AudioSource extends Binder {
         call.resolve();
     }
 
+    private void onArtworkLoaded(String artworkSource) {
+        if (getPlayer() == null || !artworkSource.equals(audioMetadata.artworkSource)) {
+            return;
+        }
+
+        updateMetadata();
+    }
+
     private void updateMetadata() {
-        var currentMediaItem = getPlayer().getCurrentMediaItem();
+        Player player = getPlayer();
+        var currentMediaItem = player.getCurrentMediaItem();
+        // The notification player is shared; it may have moved on to a library queue since
+        if (currentMediaItem == null || !isOwnItem(currentMediaItem)) {
+            return;
+        }
+
         var newMediaItem = currentMediaItem
             .buildUpon()
             .setMediaMetadata(getMediaMetadata())
             .build();
 
-        getPlayer().replaceMediaItem(0, newMediaItem);
+        player.replaceMediaItem(player.getCurrentMediaItemIndex(), newMediaItem);
+    }
+
+    private boolean isOwnItem(MediaItem mediaItem) {
+        return isItemFor(source, mediaItem);
+    }
+
+    // Signed URLs are matched by object, since the token may have been refreshed since; anything
+    // else has no cache key and must match by URI
+    @OptIn(markerClass = UnstableApi.class)
+    static boolean isItemFor(@Nullable String source, MediaItem mediaItem) {
+        if (mediaItem.localConfiguration == null) {
+            return false;
+        }
+        String sourceKey = MediaCache.sourceKey(source);
+        if (sourceKey != null) {
+            return sourceKey.equals(mediaItem.localConfiguration.customCacheKey);
+        }
+        return Objects.equals(source, mediaItem.localConfiguration.uri.toString());
     }
 
     private MediaMetadata getMediaMetadata() {
@@ -293,28 +353,27 @@ public class AudioSource extends Binder {
         if (useForNotification && audioMetadata.artworkSource != null) {
             try {
                 if (audioMetadata.artworkSource.startsWith("https:")) {
-                    builder.setArtworkUri(Uri.parse(audioMetadata.artworkSource));
+                    // The URI keeps the object URL, so the bitmap loader can fall back to it when
+                    // the notification-size render is refused
+                    builder.setArtworkUri(
+                        ArtworkProvider.uriFor(
+                            pluginOwner.getContext(),
+                            audioMetadata.artworkSource,
+                            ArtworkVariant.NOTIFICATION
+                        )
+                    );
                 } else {
-                    int bufferLength = 4 * 0x400; // 4KB
-                    byte[] buffer = new byte[bufferLength];
-                    int readLength;
-                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-                    InputStream inputStream = pluginOwner
-                        .getContext()
-                        .getAssets()
-                        .open("public/" + audioMetadata.artworkSource);
-
-                    while ((readLength = inputStream.read(buffer, 0, bufferLength)) != -1) {
-                        outputStream.write(buffer, 0, readLength);
-                    }
-
-                    inputStream.close();
-
-                    builder.maybeSetArtworkData(
-                        outputStream.toByteArray(),
-                        MediaMetadata.PICTURE_TYPE_OTHER
+                    AssetArtworkCache assetArtwork = AssetArtworkCache.get(
+                        pluginOwner.getContext()
                     );
+                    byte[] artwork = assetArtwork.getCached(audioMetadata.artworkSource);
+
+                    if (artwork != null) {
+                        builder.maybeSetArtworkData(artwork, MediaMetadata.PICTURE_TYPE_OTHER);
+                    } else {
+                        // Goes out without artwork; onArtworkLoaded replaces the item when ready
+                        assetArtwork.load(audioMetadata.artworkSource, this::onArtworkLoaded);
+                    }
                 }
             } catch (Exception ex) {
                 Log.w(TAG, "Could not load the artwork source.", ex);
@@ -1,20 +1,40 @@
 package us.mediagrid.capacitorjs.plugins.nativeaudio;
 
+import org.json.JSONObject;
+
 public class AutoAuthConfig {
     public final String supabaseUrl;
     public final String supabaseAnonKey;
     public final String accessToken;
+    public final String userId;
+    public final long expiresAtSeconds;
 
     public AutoAuthConfig(String supabaseUrl, String supabaseAnonKey, String accessToken) {
         this.supabaseUrl = supabaseUrl;
         this.supabaseAnonKey = supabaseAnonKey;
         this.accessToken = accessToken;
+
+        JSONObject claims = AutoAuthStore.decodeClaims(accessToken);
+        this.userId = claims != null ? claims.optString("sub", null) : null;
+        this.expiresAtSeconds = claims != null ? claims.optLong("exp", 0) : 0;
+    }
+
+    public boolean hasAccessToken() {
+        return accessToken != null && !accessToken.isEmpty();
+    }
+
+    public boolean isTokenExpired() {
+        if (expiresAtSeconds <= 0) {
+            return false;
+        }
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        return expiresAtSeconds <= nowSeconds;
     }
 
     public boolean isValid() {
         return supabaseUrl != null && !supabaseUrl.isEmpty() &&
             supabaseAnonKey != null && !supabaseAnonKey.isEmpty() &&
-            accessToken != null && !accessToken.isEmpty();
+            hasAccessToken();
     }
 
     public boolean isValidForPublic() {
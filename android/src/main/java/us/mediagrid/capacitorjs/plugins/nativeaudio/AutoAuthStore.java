@@ -5,6 +5,7 @@ import android.content.SharedPreferences;
 import android.util.Log;
 import android.util.Base64;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.json.JSONObject;
 
 public class AutoAuthStore {
@@ -14,6 +15,14 @@ public class AutoAuthStore {
     private static final String KEY_SUPABASE_ANON_KEY = "supabase_anon_key";
     private static final String KEY_ACCESS_TOKEN = "access_token";
 
+    // Loaded once per process and replaced only by save(), so the browse hot path never touches disk
+    private static volatile AutoAuthConfig cached;
+    private static final CopyOnWriteArrayList<OnChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public interface OnChangeListener {
+        void onAutoAuthConfigChanged(AutoAuthConfig config);
+    }
+
     public static void save(Context context, String supabaseUrl, String supabaseAnonKey, String accessToken) {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         prefs.edit()
@@ -25,68 +34,62 @@ public class AutoAuthStore {
             TAG,
             "save: url=" + (supabaseUrl != null) + " anonKey=" + (supabaseAnonKey != null) + " token=" + (accessToken != null && !accessToken.isEmpty())
         );
-    }
 
-    public static AutoAuthConfig load(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        AutoAuthConfig config = new AutoAuthConfig(
-            prefs.getString(KEY_SUPABASE_URL, null),
-            prefs.getString(KEY_SUPABASE_ANON_KEY, null),
-            prefs.getString(KEY_ACCESS_TOKEN, null)
-        );
-        Log.i(
-            TAG,
-            "load: url=" + (config.supabaseUrl != null) + " anonKey=" + (config.supabaseAnonKey != null) + " token=" + (config.accessToken != null && !config.accessToken.isEmpty())
-        );
-        return config;
+        AutoAuthConfig config = new AutoAuthConfig(supabaseUrl, supabaseAnonKey, accessToken);
+        cached = config;
+        for (OnChangeListener listener : listeners) {
+            listener.onAutoAuthConfigChanged(config);
+        }
     }
 
-    public static String extractUserId(String accessToken) {
-        if (accessToken == null || accessToken.isEmpty()) {
-            return null;
+    public static AutoAuthConfig load(Context context) {
+        AutoAuthConfig current = cached;
+        if (current != null) {
+            return current;
         }
 
-        try {
-            String[] parts = accessToken.split("\\.");
-            if (parts.length < 2) {
-                return null;
+        synchronized (AutoAuthStore.class) {
+            if (cached == null) {
+                SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                AutoAuthConfig config = new AutoAuthConfig(
+                    prefs.getString(KEY_SUPABASE_URL, null),
+                    prefs.getString(KEY_SUPABASE_ANON_KEY, null),
+                    prefs.getString(KEY_ACCESS_TOKEN, null)
+                );
+                Log.i(
+                    TAG,
+                    "load: url=" + (config.supabaseUrl != null) + " anonKey=" + (config.supabaseAnonKey != null) + " token=" + config.hasAccessToken()
+                );
+                cached = config;
             }
-            byte[] decoded = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP);
-            String payload = new String(decoded, StandardCharsets.UTF_8);
-            JSONObject json = new JSONObject(payload);
-            return json.optString("sub", null);
-        } catch (Exception ex) {
-            Log.w(TAG, "extractUserId failed", ex);
-            return null;
+            return cached;
         }
     }
 
-    public static long extractExpiry(String accessToken) {
+    public static void addListener(OnChangeListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public static void removeListener(OnChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    static JSONObject decodeClaims(String accessToken) {
         if (accessToken == null || accessToken.isEmpty()) {
-            return 0;
+            return null;
         }
 
         try {
             String[] parts = accessToken.split("\\.");
             if (parts.length < 2) {
-                return 0;
+                return null;
             }
             byte[] decoded = Base64.decode(parts[1], Base64.URL_SAFE | Base64.NO_WRAP);
             String payload = new String(decoded, StandardCharsets.UTF_8);
-            JSONObject json = new JSONObject(payload);
-            return json.optLong("exp", 0);
+            return new JSONObject(payload);
         } catch (Exception ex) {
-            Log.w(TAG, "extractExpiry failed", ex);
-            return 0;
-        }
-    }
-
-    public static boolean isTokenExpired(String accessToken) {
-        long expSeconds = extractExpiry(accessToken);
-        if (expSeconds <= 0) {
-            return false;
+            Log.w(TAG, "decodeClaims failed", ex);
+            return null;
         }
-        long nowSeconds = System.currentTimeMillis() / 1000;
-        return expSeconds <= nowSeconds;
     }
 }
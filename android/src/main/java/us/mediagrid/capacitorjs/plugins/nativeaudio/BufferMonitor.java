@@ -0,0 +1,95 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.os.Bundle;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.DefaultLoadControl;
+import androidx.media3.exoplayer.analytics.AnalyticsListener;
+
+/**
+ * Owns a player's {@link BufferProfile} load control and measures what the profile costs: the time
+ * from a play request (or a new item while playing) to the first audio out, and the bytes the
+ * buffer holds in memory. Runs on the player's thread.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class BufferMonitor implements AnalyticsListener {
+
+    private static final String TAG = "BufferMonitor";
+
+    public static final String KEY_PROFILE = "profile";
+    public static final String KEY_TIME_TO_FIRST_AUDIO_MS = "timeToFirstAudioMs";
+    public static final String KEY_ALLOCATED_BYTES = "allocatedBytes";
+    public static final String KEY_TARGET_BUFFER_BYTES = "targetBufferBytes";
+    public static final String KEY_BUFFERED_DURATION_MS = "bufferedDurationMs";
+
+    private final BufferProfile profile;
+    private final DefaultLoadControl loadControl;
+    private boolean playWhenReady = false;
+    private long playRequestedAtMs = C.TIME_UNSET;
+    private long timeToFirstAudioMs = C.TIME_UNSET;
+
+    public BufferMonitor(BufferProfile profile) {
+        this.profile = profile;
+        this.loadControl = profile.buildLoadControl();
+    }
+
+    public BufferProfile getProfile() {
+        return profile;
+    }
+
+    public DefaultLoadControl getLoadControl() {
+        return loadControl;
+    }
+
+    @Override
+    public void onPlayWhenReadyChanged(EventTime eventTime, boolean playWhenReady, int reason) {
+        this.playWhenReady = playWhenReady;
+        playRequestedAtMs = playWhenReady ? System.currentTimeMillis() : C.TIME_UNSET;
+    }
+
+    @Override
+    public void onMediaItemTransition(
+        EventTime eventTime,
+        @Nullable MediaItem mediaItem,
+        int reason
+    ) {
+        // A gapless auto-advance or repeat is not a start; a newly opened item while playing is
+        if (
+            playWhenReady &&
+            mediaItem != null &&
+            reason != Player.MEDIA_ITEM_TRANSITION_REASON_AUTO &&
+            reason != Player.MEDIA_ITEM_TRANSITION_REASON_REPEAT
+        ) {
+            playRequestedAtMs = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void onAudioPositionAdvancing(EventTime eventTime, long playoutStartSystemTimeMs) {
+        if (playRequestedAtMs == C.TIME_UNSET) {
+            return;
+        }
+        timeToFirstAudioMs = Math.max(0, playoutStartSystemTimeMs - playRequestedAtMs);
+        playRequestedAtMs = C.TIME_UNSET;
+        Log.i(TAG, "Time to first audio " + timeToFirstAudioMs + "ms, profile=" + profile.id);
+    }
+
+    /** The latest measurements; call on the player's thread. */
+    public Bundle getStats(Player player) {
+        Bundle stats = new Bundle();
+        stats.putString(KEY_PROFILE, profile.id);
+        stats.putLong(
+            KEY_TIME_TO_FIRST_AUDIO_MS,
+            timeToFirstAudioMs == C.TIME_UNSET ? -1 : timeToFirstAudioMs
+        );
+        stats.putLong(KEY_ALLOCATED_BYTES, loadControl.getAllocator().getTotalBytesAllocated());
+        stats.putLong(KEY_TARGET_BUFFER_BYTES, profile.targetBufferBytes);
+        stats.putLong(KEY_BUFFERED_DURATION_MS, player.getTotalBufferedDuration());
+        return stats;
+    }
+}
@@ -0,0 +1,79 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.DefaultLoadControl;
+
+/**
+ * How much audio a player buffers ahead and how soon it starts. Each profile sets the minimum and
+ * maximum buffer, the buffer needed to start (and to restart after a rebuffer) and a byte budget
+ * that caps the buffer's memory whichever duration is reached first.
+ */
+public enum BufferProfile {
+    // Short clips: start on half a second of audio
+    FAST_START("fast-start", 10_000, 30_000, 500, 1_500, 2 * 1024 * 1024),
+    // Several sources at once: keep each buffer small
+    LOW_MEMORY("low-memory", 5_000, 15_000, 1_000, 2_000, 512 * 1024),
+    // Long episodes: ride out dropped connections with a deep buffer
+    PODCAST("podcast", 30_000, 120_000, 1_500, 3_000, 4 * 1024 * 1024),
+    // Looping beds under the primary audio: start latency matters little, memory does
+    BACKGROUND_MUSIC("background-music", 15_000, 30_000, 2_500, 5_000, 1024 * 1024);
+
+    static final String META_PROFILE = "us.mediagrid.capacitorjs.nativeaudio.bufferProfile";
+
+    public final String id;
+    public final int minBufferMs;
+    public final int maxBufferMs;
+    public final int bufferForPlaybackMs;
+    public final int bufferForPlaybackAfterRebufferMs;
+    public final int targetBufferBytes;
+
+    BufferProfile(
+        String id,
+        int minBufferMs,
+        int maxBufferMs,
+        int bufferForPlaybackMs,
+        int bufferForPlaybackAfterRebufferMs,
+        int targetBufferBytes
+    ) {
+        this.id = id;
+        this.minBufferMs = minBufferMs;
+        this.maxBufferMs = maxBufferMs;
+        this.bufferForPlaybackMs = bufferForPlaybackMs;
+        this.bufferForPlaybackAfterRebufferMs = bufferForPlaybackAfterRebufferMs;
+        this.targetBufferBytes = targetBufferBytes;
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    public DefaultLoadControl buildLoadControl() {
+        return new DefaultLoadControl.Builder()
+            .setBufferDurationsMs(
+                minBufferMs,
+                maxBufferMs,
+                bufferForPlaybackMs,
+                bufferForPlaybackAfterRebufferMs
+            )
+            .setTargetBufferBytes(targetBufferBytes)
+            .setPrioritizeTimeOverSizeThresholds(false)
+            .build();
+    }
+
+    /** The profile for a source created without one. */
+    public static BufferProfile defaultFor(boolean isBackgroundMusic) {
+        return isBackgroundMusic ? BACKGROUND_MUSIC : FAST_START;
+    }
+
+    /** The profile with {@code id}, or {@code fallback} if {@code id} is null. */
+    public static BufferProfile fromId(@Nullable String id, BufferProfile fallback) {
+        if (id == null) {
+            return fallback;
+        }
+        for (BufferProfile profile : values()) {
+            if (profile.id.equals(id)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown buffer profile " + id);
+    }
+}
@@ -0,0 +1,782 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Last good copy of the Android Auto catalog. Rows are stored once by id (podcasts, playlists,
+ * episodes) and each browse list is an ordered set of references, so a cold-started service can
+ * rebuild any node from disk before, or without, a network round trip.
+ *
+ * <p>Lists are written page by page with the same offsets the browser asked for: "shelves" hold
+ * the top-level nodes and {@code playlist_items} keeps the series ordering.
+ *
+ * <p>Episodes and playlists are also kept in FTS4 tables (docid = the row's rowid) as they are
+ * written, so search never needs the network for anything that has been fetched before.
+ */
+public class CatalogDatabase extends SQLiteOpenHelper {
+
+    private static final String TAG = "CatalogDatabase";
+    private static final String DATABASE_NAME = "native_audio_catalog.db";
+    private static final int DATABASE_VERSION = 3;
+    private static final double WEIGHT_TITLE = 10;
+    private static final double WEIGHT_PODCAST_TITLE = 4;
+    private static final double WEIGHT_BODY = 1;
+    // Episodes found only by a remote search sit on this shelf so pruning leaves them alone
+    private static final String SEARCH_SHELF = "search";
+    private static final int SEARCH_SHELF_MAX = 500;
+
+    private static final String PLAYLIST_COLUMNS =
+        "pl.id, pl.title, pl.description, pl.cover_image_path, pl.category, pl.updated_at";
+    private static final String EPISODE_COLUMNS =
+        "e.id, e.title, e.summary, e.image_url, e.audio_url, e.published_at, " +
+        "p.id, p.title, p.image_url";
+
+    private static volatile CatalogDatabase instance;
+
+    private CatalogDatabase(Context context) {
+        this(context, DATABASE_NAME);
+    }
+
+    // A null name opens a private in-memory database
+    CatalogDatabase(Context context, @Nullable String name) {
+        super(context, name, null, DATABASE_VERSION);
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    public static CatalogDatabase get(Context context) {
+        if (instance == null) {
+            synchronized (CatalogDatabase.class) {
+                if (instance == null) {
+                    instance = new CatalogDatabase(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(
+            "CREATE TABLE podcasts (id TEXT PRIMARY KEY, title TEXT, image_url TEXT)"
+        );
+        db.execSQL(
+            "CREATE TABLE playlists (" +
+            "id TEXT PRIMARY KEY, title TEXT, description TEXT, cover_image_path TEXT, " +
+            "category TEXT, updated_at TEXT)"
+        );
+        db.execSQL(
+            "CREATE TABLE episodes (" +
+            "id TEXT PRIMARY KEY, title TEXT, summary TEXT, image_url TEXT, audio_url TEXT, " +
+            "published_at TEXT, podcast_id TEXT)"
+        );
+        db.execSQL("CREATE INDEX episodes_published_at ON episodes (published_at)");
+        db.execSQL(
+            "CREATE TABLE playlist_items (" +
+            "playlist_id TEXT NOT NULL, position INTEGER NOT NULL, episode_id TEXT NOT NULL, " +
+            "PRIMARY KEY (playlist_id, position))"
+        );
+        db.execSQL(
+            "CREATE TABLE shelf_entries (" +
+            "shelf TEXT NOT NULL, position INTEGER NOT NULL, ref_id TEXT NOT NULL, " +
+            "progress_ms INTEGER NOT NULL DEFAULT 0, PRIMARY KEY (shelf, position))"
+        );
+        db.execSQL("CREATE TABLE sync_state (name TEXT PRIMARY KEY, value TEXT)");
+        db.execSQL(
+            "CREATE VIRTUAL TABLE episodes_fts USING fts4(" +
+            "title, summary, podcast_title, tokenize=unicode61)"
+        );
+        db.execSQL(
+            "CREATE VIRTUAL TABLE playlists_fts USING fts4(title, description, tokenize=unicode61)"
+        );
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Everything here can be refetched, so start over rather than migrate
+        db.execSQL("DROP TABLE IF EXISTS playlists_fts");
+        db.execSQL("DROP TABLE IF EXISTS episodes_fts");
+        db.execSQL("DROP TABLE IF EXISTS sync_state");
+        db.execSQL("DROP TABLE IF EXISTS shelf_entries");
+        db.execSQL("DROP TABLE IF EXISTS playlist_items");
+        db.execSQL("DROP TABLE IF EXISTS episodes");
+        db.execSQL("DROP TABLE IF EXISTS playlists");
+        db.execSQL("DROP TABLE IF EXISTS podcasts");
+        onCreate(db);
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (!db.isReadOnly()) {
+            pruneOrphans(db);
+        }
+    }
+
+    public void replacePlaylists(
+        String shelf,
+        int limit,
+        int offset,
+        List<SupabaseApi.AutoPlaylist> playlists
+    ) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            clearShelfPage(db, shelf, limit, offset, playlists.size());
+            for (int i = 0; i < playlists.size(); i++) {
+                SupabaseApi.AutoPlaylist playlist = playlists.get(i);
+                upsertPlaylist(db, playlist);
+                insertShelfEntry(db, shelf, offset + i, playlist.id, 0);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public List<SupabaseApi.AutoPlaylist> loadPlaylists(String shelf, int limit, int offset) {
+        List<SupabaseApi.AutoPlaylist> results = new ArrayList<>();
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + PLAYLIST_COLUMNS + " " +
+                "FROM shelf_entries s JOIN playlists pl ON pl.id = s.ref_id " +
+                "WHERE s.shelf = ? AND s.position >= ? AND s.position < ? ORDER BY s.position",
+                pageArgs(shelf, limit, offset)
+            )
+        ) {
+            while (cursor.moveToNext()) {
+                results.add(readPlaylist(cursor));
+            }
+        }
+        return results;
+    }
+
+    public SupabaseApi.AutoPlaylist loadPlaylist(String playlistId) {
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + PLAYLIST_COLUMNS + " FROM playlists pl WHERE pl.id = ?",
+                new String[] { playlistId }
+            )
+        ) {
+            return cursor.moveToFirst() ? readPlaylist(cursor) : null;
+        }
+    }
+
+    public void savePlaylist(SupabaseApi.AutoPlaylist playlist) {
+        upsertPlaylist(getWritableDatabase(), playlist);
+    }
+
+    /** True when playlists are known but none of them is in the series category. */
+    public boolean hasOnlyNonSeriesPlaylists() {
+        SQLiteDatabase db = getReadableDatabase();
+        long series = DatabaseUtils.queryNumEntries(db, "playlists", "category = 'series'");
+        return series == 0 &&
+            DatabaseUtils.queryNumEntries(db, "playlists", "category IS NOT NULL") > 0;
+    }
+
+    public void replaceEpisodes(
+        String shelf,
+        int limit,
+        int offset,
+        List<SupabaseApi.AutoEpisode> episodes
+    ) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            clearShelfPage(db, shelf, limit, offset, episodes.size());
+            for (int i = 0; i < episodes.size(); i++) {
+                SupabaseApi.AutoEpisode episode = episodes.get(i);
+                upsertEpisode(db, episode);
+                insertShelfEntry(db, shelf, offset + i, episode.id, 0);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public List<SupabaseApi.AutoEpisode> loadEpisodes(String shelf, int limit, int offset) {
+        List<SupabaseApi.AutoEpisode> results = new ArrayList<>();
+        try (Cursor cursor = queryShelfEpisodes(shelf, limit, offset)) {
+            while (cursor.moveToNext()) {
+                results.add(readEpisode(cursor));
+            }
+        }
+        return results;
+    }
+
+    public void replaceContinueItems(
+        String shelf,
+        int limit,
+        int offset,
+        List<SupabaseApi.AutoContinueItem> items
+    ) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            clearShelfPage(db, shelf, limit, offset, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                SupabaseApi.AutoContinueItem item = items.get(i);
+                upsertEpisode(db, item.episode);
+                insertShelfEntry(db, shelf, offset + i, item.episode.id, item.progressMs);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public List<SupabaseApi.AutoContinueItem> loadContinueItems(
+        String shelf,
+        int limit,
+        int offset
+    ) {
+        List<SupabaseApi.AutoContinueItem> results = new ArrayList<>();
+        try (Cursor cursor = queryShelfEpisodes(shelf, limit, offset)) {
+            while (cursor.moveToNext()) {
+                results.add(
+                    new SupabaseApi.AutoContinueItem(readEpisode(cursor), cursor.getLong(9))
+                );
+            }
+        }
+        return results;
+    }
+
+    public void replacePlaylistItems(
+        String playlistId,
+        int limit,
+        int offset,
+        List<SupabaseApi.AutoEpisode> episodes
+    ) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (episodes.size() < limit) {
+                db.delete(
+                    "playlist_items",
+                    "playlist_id = ? AND position >= ?",
+                    new String[] { playlistId, String.valueOf(offset) }
+                );
+            } else {
+                db.delete(
+                    "playlist_items",
+                    "playlist_id = ? AND position >= ? AND position < ?",
+                    pageArgs(playlistId, limit, offset)
+                );
+            }
+            for (int i = 0; i < episodes.size(); i++) {
+                SupabaseApi.AutoEpisode episode = episodes.get(i);
+                upsertEpisode(db, episode);
+                ContentValues values = new ContentValues();
+                values.put("playlist_id", playlistId);
+                values.put("position", offset + i);
+                values.put("episode_id", episode.id);
+                db.insertWithOnConflict(
+                    "playlist_items",
+                    null,
+                    values,
+                    SQLiteDatabase.CONFLICT_REPLACE
+                );
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public List<SupabaseApi.AutoEpisode> loadPlaylistItems(
+        String playlistId,
+        int limit,
+        int offset
+    ) {
+        List<SupabaseApi.AutoEpisode> results = new ArrayList<>();
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + EPISODE_COLUMNS + " FROM playlist_items i " +
+                "JOIN episodes e ON e.id = i.episode_id " +
+                "LEFT JOIN podcasts p ON p.id = e.podcast_id " +
+                "WHERE i.playlist_id = ? AND i.position >= ? AND i.position < ? " +
+                "ORDER BY i.position",
+                pageArgs(playlistId, limit, offset)
+            )
+        ) {
+            while (cursor.moveToNext()) {
+                results.add(readEpisode(cursor));
+            }
+        }
+        return results;
+    }
+
+    /** Drops every shelf whose name starts with {@code prefix}, e.g. a signed-out user's lists. */
+    public void clearShelves(String prefix) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.delete("shelf_entries", "substr(shelf, 1, ?) = ?", new String[] {
+            String.valueOf(prefix.length()),
+            prefix
+        });
+        pruneOrphans(db);
+    }
+
+    /**
+     * Applies changed playlist rows from a delta sync. Rows that are no longer listed are removed
+     * along with their items and shelf references.
+     */
+    public void mergePlaylists(List<SupabaseApi.AutoPlaylist> playlists) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (SupabaseApi.AutoPlaylist playlist : playlists) {
+                if (playlist.listed) {
+                    upsertPlaylist(db, playlist);
+                    continue;
+                }
+                String[] args = new String[] { playlist.id };
+                db.execSQL(
+                    "DELETE FROM playlists_fts WHERE docid IN " +
+                    "(SELECT rowid FROM playlists WHERE id = ?)",
+                    args
+                );
+                db.delete("playlists", "id = ?", args);
+                db.delete("playlist_items", "playlist_id = ?", args);
+                db.delete("shelf_entries", "ref_id = ?", args);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public void mergeEpisodes(List<SupabaseApi.AutoEpisode> episodes) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (SupabaseApi.AutoEpisode episode : episodes) {
+                upsertEpisode(db, episode);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Merges episodes a remote search returned and pins them, newest search first, so they stay
+     * searchable offline. Only the last {@link #SEARCH_SHELF_MAX} are kept pinned.
+     */
+    public void mergeSearchEpisodes(List<SupabaseApi.AutoEpisode> episodes) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            LinkedHashSet<String> pinned = new LinkedHashSet<>();
+            for (SupabaseApi.AutoEpisode episode : episodes) {
+                upsertEpisode(db, episode);
+                pinned.add(episode.id);
+            }
+            pinned.addAll(
+                queryIds(
+                    db,
+                    "SELECT ref_id FROM shelf_entries WHERE shelf = ? ORDER BY position",
+                    new String[] { SEARCH_SHELF }
+                )
+            );
+            List<String> ids = new ArrayList<>(pinned);
+            replaceShelf(db, SEARCH_SHELF, ids.subList(0, Math.min(ids.size(), SEARCH_SHELF_MAX)));
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public boolean hasPlaylistItems(String playlistId) {
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT 1 FROM playlist_items WHERE playlist_id = ? LIMIT 1",
+                new String[] { playlistId }
+            )
+        ) {
+            return cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Rewrites a series shelf from the synced playlists, newest first. Falls back to every listed
+     * playlist when none are in the series category, like the browse tree does.
+     */
+    public void rebuildSeriesShelf(String shelf) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            List<String> ids = queryIds(
+                db,
+                "SELECT id FROM playlists WHERE category = 'series' ORDER BY updated_at DESC",
+                null
+            );
+            if (ids.isEmpty()) {
+                ids = queryIds(
+                    db,
+                    "SELECT id FROM playlists WHERE updated_at IS NOT NULL " +
+                    "ORDER BY updated_at DESC",
+                    null
+                );
+            }
+            replaceShelf(db, shelf, ids);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Rewrites a latest-episodes shelf from every episode published at or after {@code floor};
+     * sync keeps that range complete, so the order matches {@code published_at.desc} upstream.
+     */
+    public void rebuildLatestShelf(String shelf, String floor) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            replaceShelf(
+                db,
+                shelf,
+                queryIds(
+                    db,
+                    "SELECT id FROM episodes WHERE published_at >= ? ORDER BY published_at DESC",
+                    new String[] { floor }
+                )
+            );
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public SupabaseApi.AutoEpisode loadEpisode(String episodeId) {
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT " + EPISODE_COLUMNS + " FROM episodes e " +
+                "LEFT JOIN podcasts p ON p.id = e.podcast_id WHERE e.id = ?",
+                new String[] { episodeId }
+            )
+        ) {
+            return cursor.moveToFirst() ? readEpisode(cursor) : null;
+        }
+    }
+
+    /**
+     * Ranks indexed playlists and episodes against {@code query}. Every word must match (as a
+     * prefix, so partial voice transcriptions still hit); title hits outweigh podcast titles,
+     * which outweigh summaries and descriptions. Newer rows win ties.
+     */
+    public List<SearchHit> search(String query) {
+        String match = toMatchExpression(query);
+        List<SearchHit> hits = new ArrayList<>();
+        if (match == null) {
+            return hits;
+        }
+
+        SQLiteDatabase db = getReadableDatabase();
+        try (
+            Cursor cursor = db.rawQuery(
+                "SELECT pl.id, pl.updated_at, matchinfo(playlists_fts, 'pcx') FROM playlists_fts " +
+                "JOIN playlists pl ON pl.rowid = playlists_fts.docid WHERE playlists_fts MATCH ?",
+                new String[] { match }
+            )
+        ) {
+            double[] weights = { WEIGHT_TITLE, WEIGHT_BODY };
+            while (cursor.moveToNext()) {
+                hits.add(
+                    new SearchHit(
+                        true,
+                        cursor.getString(0),
+                        score(cursor.getBlob(2), weights),
+                        cursor.getString(1)
+                    )
+                );
+            }
+        }
+        try (
+            Cursor cursor = db.rawQuery(
+                "SELECT e.id, e.published_at, matchinfo(episodes_fts, 'pcx') FROM episodes_fts " +
+                "JOIN episodes e ON e.rowid = episodes_fts.docid WHERE episodes_fts MATCH ?",
+                new String[] { match }
+            )
+        ) {
+            double[] weights = { WEIGHT_TITLE, WEIGHT_BODY, WEIGHT_PODCAST_TITLE };
+            while (cursor.moveToNext()) {
+                hits.add(
+                    new SearchHit(
+                        false,
+                        cursor.getString(0),
+                        score(cursor.getBlob(2), weights),
+                        cursor.getString(1)
+                    )
+                );
+            }
+        }
+
+        Collections.sort(hits, (a, b) -> {
+            int byScore = Double.compare(b.score, a.score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            String left = a.recency != null ? a.recency : "";
+            String right = b.recency != null ? b.recency : "";
+            return right.compareTo(left);
+        });
+        return hits;
+    }
+
+    public String getSyncState(String name) {
+        try (
+            Cursor cursor = getReadableDatabase().rawQuery(
+                "SELECT value FROM sync_state WHERE name = ?",
+                new String[] { name }
+            )
+        ) {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        }
+    }
+
+    public void setSyncState(String name, String value) {
+        ContentValues values = new ContentValues();
+        values.put("name", name);
+        values.put("value", value);
+        getWritableDatabase()
+            .insertWithOnConflict("sync_state", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private Cursor queryShelfEpisodes(String shelf, int limit, int offset) {
+        return getReadableDatabase().rawQuery(
+            "SELECT " + EPISODE_COLUMNS + ", s.progress_ms FROM shelf_entries s " +
+            "JOIN episodes e ON e.id = s.ref_id " +
+            "LEFT JOIN podcasts p ON p.id = e.podcast_id " +
+            "WHERE s.shelf = ? AND s.position >= ? AND s.position < ? ORDER BY s.position",
+            pageArgs(shelf, limit, offset)
+        );
+    }
+
+    // A short page is the end of the list, so anything stored past it is gone upstream too
+    private static void clearShelfPage(
+        SQLiteDatabase db,
+        String shelf,
+        int limit,
+        int offset,
+        int count
+    ) {
+        if (count < limit) {
+            db.delete(
+                "shelf_entries",
+                "shelf = ? AND position >= ?",
+                new String[] { shelf, String.valueOf(offset) }
+            );
+        } else {
+            db.delete(
+                "shelf_entries",
+                "shelf = ? AND position >= ? AND position < ?",
+                pageArgs(shelf, limit, offset)
+            );
+        }
+    }
+
+    private static void insertShelfEntry(
+        SQLiteDatabase db,
+        String shelf,
+        int position,
+        String refId,
+        long progressMs
+    ) {
+        ContentValues values = new ContentValues();
+        values.put("shelf", shelf);
+        values.put("position", position);
+        values.put("ref_id", refId);
+        values.put("progress_ms", progressMs);
+        db.insertWithOnConflict("shelf_entries", null, values, SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    private static void replaceShelf(SQLiteDatabase db, String shelf, List<String> ids) {
+        db.delete("shelf_entries", "shelf = ?", new String[] { shelf });
+        for (int i = 0; i < ids.size(); i++) {
+            insertShelfEntry(db, shelf, i, ids.get(i), 0);
+        }
+    }
+
+    private static List<String> queryIds(SQLiteDatabase db, String sql, String[] args) {
+        List<String> ids = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery(sql, args)) {
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getString(0));
+            }
+        }
+        return ids;
+    }
+
+    private static void upsertPlaylist(SQLiteDatabase db, SupabaseApi.AutoPlaylist playlist) {
+        ContentValues values = new ContentValues();
+        values.put("id", playlist.id);
+        values.put("title", playlist.title);
+        values.put("description", playlist.description);
+        values.put("cover_image_path", playlist.coverImagePath);
+        values.put("category", playlist.category);
+        values.put("updated_at", playlist.updatedAt);
+
+        ContentValues text = new ContentValues();
+        text.put("title", playlist.title);
+        text.put("description", playlist.description);
+        index(db, "playlists_fts", upsertRow(db, "playlists", values), text);
+    }
+
+    private static void upsertEpisode(SQLiteDatabase db, SupabaseApi.AutoEpisode episode) {
+        if (episode.podcastId != null) {
+            ContentValues podcast = new ContentValues();
+            podcast.put("id", episode.podcastId);
+            podcast.put("title", episode.podcastTitle);
+            podcast.put("image_url", episode.podcastImageUrl);
+            db.insertWithOnConflict("podcasts", null, podcast, SQLiteDatabase.CONFLICT_REPLACE);
+        }
+
+        ContentValues values = new ContentValues();
+        values.put("id", episode.id);
+        values.put("title", episode.title);
+        values.put("summary", episode.summary);
+        values.put("image_url", episode.imageUrl);
+        values.put("audio_url", episode.audioUrl);
+        values.put("published_at", episode.publishedAt);
+        values.put("podcast_id", episode.podcastId);
+
+        ContentValues text = new ContentValues();
+        text.put("title", episode.title);
+        text.put("summary", episode.summary);
+        text.put("podcast_title", episode.podcastTitle);
+        index(db, "episodes_fts", upsertRow(db, "episodes", values), text);
+    }
+
+    // Update in place rather than REPLACE so the rowid, and with it the FTS docid, stays put
+    private static long upsertRow(SQLiteDatabase db, String table, ContentValues values) {
+        String[] args = new String[] { values.getAsString("id") };
+        if (db.update(table, values, "id = ?", args) > 0) {
+            return DatabaseUtils.longForQuery(
+                db,
+                "SELECT rowid FROM " + table + " WHERE id = ?",
+                args
+            );
+        }
+        return db.insertOrThrow(table, null, values);
+    }
+
+    private static void index(SQLiteDatabase db, String ftsTable, long docId, ContentValues text) {
+        db.delete(ftsTable, "docid = ?", new String[] { String.valueOf(docId) });
+        text.put("docid", docId);
+        db.insert(ftsTable, null, text);
+    }
+
+    // Each word becomes a prefix term; FTS ANDs terms separated by spaces
+    static String toMatchExpression(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append(word).append('*');
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    // matchinfo 'pcx': phrase count, column count, then per phrase and column three counters of
+    // which the first is hits in this row
+    private static double score(byte[] matchinfo, double[] weights) {
+        IntBuffer info = ByteBuffer.wrap(matchinfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns && column < weights.length; column++) {
+                score += weights[column] * info.get(2 + 3 * (phrase * columns + column));
+            }
+        }
+        return score;
+    }
+
+    private static void pruneOrphans(SQLiteDatabase db) {
+        try {
+            db.execSQL(
+                "DELETE FROM episodes WHERE id NOT IN (SELECT ref_id FROM shelf_entries) " +
+                "AND id NOT IN (SELECT episode_id FROM playlist_items)"
+            );
+            db.execSQL(
+                "DELETE FROM podcasts WHERE id NOT IN " +
+                "(SELECT podcast_id FROM episodes WHERE podcast_id IS NOT NULL)"
+            );
+            db.execSQL("DELETE FROM episodes_fts WHERE docid NOT IN (SELECT rowid FROM episodes)");
+        } catch (Exception ex) {
+            Log.w(TAG, "pruneOrphans failed", ex);
+        }
+    }
+
+    private static SupabaseApi.AutoPlaylist readPlaylist(Cursor cursor) {
+        return new SupabaseApi.AutoPlaylist(
+            cursor.getString(0),
+            cursor.getString(1),
+            cursor.getString(2),
+            cursor.getString(3),
+            cursor.getString(4),
+            cursor.getString(5),
+            true
+        );
+    }
+
+    private static SupabaseApi.AutoEpisode readEpisode(Cursor cursor) {
+        return new SupabaseApi.AutoEpisode(
+            cursor.getString(0),
+            cursor.getString(1),
+            cursor.getString(2),
+            cursor.getString(3),
+            cursor.getString(4),
+            cursor.getString(5),
+            cursor.getString(6),
+            cursor.getString(7),
+            cursor.getString(8)
+        );
+    }
+
+    private static String[] pageArgs(String key, int limit, int offset) {
+        return new String[] {
+            key,
+            String.valueOf(offset),
+            String.valueOf((long) offset + limit)
+        };
+    }
+
+    public static class SearchHit {
+
+        public final boolean isPlaylist;
+        public final String id;
+        public final double score;
+        final String recency;
+
+        SearchHit(boolean isPlaylist, String id, double score, String recency) {
+            this.isPlaylist = isPlaylist;
+            this.id = id;
+            this.score = score;
+            this.recency = recency;
+        }
+    }
+}
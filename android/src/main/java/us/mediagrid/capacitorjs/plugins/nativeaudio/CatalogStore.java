@@ -0,0 +1,114 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.os.SystemClock;
+import androidx.media3.common.MediaItem;
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory store of the last known children for each browse page. Entries are never dropped for
+ * being old: callers serve them immediately and use {@link Entry#isStale} to decide whether to
+ * refresh in the background (stale-while-revalidate).
+ *
+ * <p>{@link #clear} starts a new generation; a load that began before it passes the generation it
+ * read to {@link #put(String, ImmutableList, long)} and is dropped instead of bringing back pages
+ * of the previous account.
+ */
+public class CatalogStore {
+
+    private static final int MAX_ENTRIES = 64;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Set<String> refreshing = new HashSet<>();
+    private long generation = 0;
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores the children for a page and reports whether they differ from what was stored before.
+     */
+    public synchronized boolean put(String key, ImmutableList<MediaItem> items) {
+        return put(key, items, generation);
+    }
+
+    /**
+     * Like {@link #put(String, ImmutableList)}, but stores nothing and reports no change if the
+     * store was cleared since {@code generation} was read.
+     */
+    public synchronized boolean put(String key, ImmutableList<MediaItem> items, long generation) {
+        if (generation != this.generation) {
+            return false;
+        }
+        Entry previous = entries.put(key, new Entry(items, SystemClock.elapsedRealtime(), false));
+        return previous == null || !previous.items.equals(items);
+    }
+
+    /** Stores children read back from {@link CatalogDatabase}; they always count as stale. */
+    public synchronized void putSnapshot(
+        String key,
+        ImmutableList<MediaItem> items,
+        long generation
+    ) {
+        if (generation == this.generation) {
+            entries.put(key, new Entry(items, SystemClock.elapsedRealtime(), true));
+        }
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized boolean beginRefresh(String key) {
+        return refreshing.add(key);
+    }
+
+    public synchronized void endRefresh(String key) {
+        refreshing.remove(key);
+    }
+
+    /** A copy of every stored page by key, least recently used first. */
+    public synchronized Map<String, Entry> pages() {
+        return new LinkedHashMap<>(entries);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        refreshing.clear();
+        generation++;
+    }
+
+    public static class Entry {
+
+        public final ImmutableList<MediaItem> items;
+        public final long fetchedAt;
+        public final boolean fromSnapshot;
+
+        Entry(ImmutableList<MediaItem> items, long fetchedAt, boolean fromSnapshot) {
+            this.items = items;
+            this.fetchedAt = fetchedAt;
+            this.fromSnapshot = fromSnapshot;
+        }
+
+        public boolean isStale(long ttlMs) {
+            return fromSnapshot || SystemClock.elapsedRealtime() - fetchedAt > ttlMs;
+        }
+
+        /** The first {@code count} children, as old as this entry. */
+        public Entry head(int count) {
+            if (count >= items.size()) {
+                return this;
+            }
+            return new Entry(items.subList(0, count), fetchedAt, fromSnapshot);
+        }
+    }
+}
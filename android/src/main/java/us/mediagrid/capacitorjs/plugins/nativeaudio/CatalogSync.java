@@ -0,0 +1,274 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.util.Log;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Brings {@link CatalogDatabase} up to date by fetching only rows changed since the last run.
+ * Each table keeps a watermark ({@code playlists.updated_at}, {@code episodes.updated_at}) that
+ * only advances once every changed page has been merged, so a cancelled run simply repeats.
+ *
+ * <p>The first run has no watermark: it mirrors every playlist and seeds episodes from the newest
+ * page, remembering that page's oldest {@code published_at} as the floor of the latest shelf.
+ *
+ * <p>Episodes are watermarked on {@code updated_at} so edits to published episodes are picked up.
+ * Projects whose episodes table has no such column fall back to {@code published_at}, which only
+ * sees new episodes; edits then reach the database when a browse page is refetched.
+ */
+public class CatalogSync {
+
+    private static final String TAG = "CatalogSync";
+    private static final int PAGE_SIZE = 200;
+    private static final int BOOTSTRAP_EPISODES = 100;
+    private static final int SHELF_PAGE_SIZE = 50;
+    private static final String PLAYLISTS_WATERMARK = "playlists.updated_at";
+    private static final String UPDATED_AT = "updated_at";
+    private static final String PUBLISHED_AT = "published_at";
+    private static final String EPISODES_WATERMARK = "episodes.published_at";
+    private static final String EPISODES_UPDATED_WATERMARK = "episodes.updated_at";
+    private static final String EPISODES_CHANGE_COLUMN = "episodes.change_column";
+    private static final String EPISODES_FLOOR = "episodes.floor";
+
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+    private static final CopyOnWriteArrayList<OnSyncListener> listeners =
+        new CopyOnWriteArrayList<>();
+
+    public interface OnSyncListener {
+        /** Called on the sync thread after a pass that may have changed the database. */
+        void onCatalogSynced();
+    }
+
+    private final Context context;
+
+    public CatalogSync(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Runs one sync pass. Returns false when it stopped early (cancelled or failed) and should be
+     * retried; a pass that finds another one already running returns true.
+     */
+    public boolean run(AtomicBoolean cancelled) throws Exception {
+        if (!running.compareAndSet(false, true)) {
+            Log.i(TAG, "run: sync already in progress");
+            return true;
+        }
+
+        try {
+            AutoAuthConfig config = AutoAuthStore.load(context);
+            if (!config.isValidForPublic()) {
+                Log.i(TAG, "run: no auth config yet, nothing to sync");
+                return true;
+            }
+
+            SupabaseApi api = new SupabaseApi(context);
+            CatalogDatabase database = CatalogDatabase.get(context);
+            try {
+                return syncPlaylists(api, database, cancelled) &&
+                    syncEpisodes(api, database, cancelled) &&
+                    syncContinueListening(api, database, config, cancelled);
+            } finally {
+                // Even a pass that stopped early may have merged some pages
+                for (OnSyncListener listener : listeners) {
+                    listener.onCatalogSynced();
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public static void addListener(OnSyncListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public static void removeListener(OnSyncListener listener) {
+        listeners.remove(listener);
+    }
+
+    private boolean syncPlaylists(
+        SupabaseApi api,
+        CatalogDatabase database,
+        AtomicBoolean cancelled
+    ) throws Exception {
+        String watermark = database.getSyncState(PLAYLISTS_WATERMARK);
+        String nextWatermark = watermark;
+        List<String> changed = new ArrayList<>();
+
+        for (int offset = 0;; offset += PAGE_SIZE) {
+            if (cancelled.get()) {
+                return false;
+            }
+            List<SupabaseApi.AutoPlaylist> rows = api.fetchPlaylistsChangedSince(
+                watermark,
+                PAGE_SIZE,
+                offset
+            );
+            database.mergePlaylists(rows);
+            for (SupabaseApi.AutoPlaylist row : rows) {
+                if (row.listed) {
+                    changed.add(row.id);
+                }
+                nextWatermark = max(nextWatermark, row.updatedAt);
+            }
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+
+        // Item ordering rides on the parent playlist, so refresh the first page of any changed
+        // playlist that has been browsed before; deeper pages refresh when they are opened
+        for (String playlistId : changed) {
+            if (cancelled.get()) {
+                return false;
+            }
+            if (database.hasPlaylistItems(playlistId)) {
+                database.replacePlaylistItems(
+                    playlistId,
+                    SHELF_PAGE_SIZE,
+                    0,
+                    api.fetchSeriesPage(playlistId, SHELF_PAGE_SIZE, 0).episodes
+                );
+            }
+        }
+
+        database.rebuildSeriesShelf(MediaSessionCallback.NODE_SERIES);
+        if (nextWatermark != null) {
+            database.setSyncState(PLAYLISTS_WATERMARK, nextWatermark);
+        }
+        Log.i(TAG, "syncPlaylists: " + changed.size() + " changed since " + watermark);
+        return true;
+    }
+
+    private boolean syncEpisodes(SupabaseApi api, CatalogDatabase database, AtomicBoolean cancelled)
+        throws Exception {
+        String watermark = database.getSyncState(EPISODES_WATERMARK);
+        String floor = database.getSyncState(EPISODES_FLOOR);
+
+        if (watermark == null || floor == null) {
+            List<SupabaseApi.AutoEpisode> newest = api.fetchLatestEpisodes(BOOTSTRAP_EPISODES, 0);
+            if (newest.isEmpty()) {
+                return true;
+            }
+            database.mergeEpisodes(newest);
+            String newestAt = null;
+            String oldestAt = null;
+            for (SupabaseApi.AutoEpisode episode : newest) {
+                newestAt = max(newestAt, episode.publishedAt);
+                oldestAt = min(oldestAt, episode.publishedAt);
+            }
+            if (newestAt == null) {
+                Log.w(TAG, "syncEpisodes: episodes carry no published_at, skipping");
+                return true;
+            }
+            database.rebuildLatestShelf(MediaSessionCallback.NODE_EPISODES, oldestAt);
+            database.setSyncState(EPISODES_FLOOR, oldestAt);
+            database.setSyncState(EPISODES_WATERMARK, newestAt);
+            Log.i(TAG, "syncEpisodes: seeded " + newest.size() + " episodes");
+            return true;
+        }
+
+        if (!PUBLISHED_AT.equals(database.getSyncState(EPISODES_CHANGE_COLUMN))) {
+            try {
+                // Nothing is updated before it is published, so the first pass starts there
+                String updatedWatermark = database.getSyncState(EPISODES_UPDATED_WATERMARK);
+                return syncEpisodeChanges(
+                    api,
+                    database,
+                    cancelled,
+                    UPDATED_AT,
+                    updatedWatermark != null ? updatedWatermark : watermark,
+                    floor
+                );
+            } catch (SupabaseApi.MissingColumnException ex) {
+                Log.w(TAG, "syncEpisodes: episodes have no updated_at, watermarking published_at");
+                database.setSyncState(EPISODES_CHANGE_COLUMN, PUBLISHED_AT);
+            }
+        }
+        return syncEpisodeChanges(api, database, cancelled, PUBLISHED_AT, watermark, floor);
+    }
+
+    private boolean syncEpisodeChanges(
+        SupabaseApi api,
+        CatalogDatabase database,
+        AtomicBoolean cancelled,
+        String column,
+        String watermark,
+        String floor
+    ) throws Exception {
+        String nextWatermark = watermark;
+        int total = 0;
+        for (int offset = 0;; offset += PAGE_SIZE) {
+            if (cancelled.get()) {
+                return false;
+            }
+            List<SupabaseApi.AutoEpisode> rows = api.fetchEpisodesChangedSince(
+                column,
+                watermark,
+                PAGE_SIZE,
+                offset
+            );
+            database.mergeEpisodes(rows);
+            for (SupabaseApi.AutoEpisode row : rows) {
+                nextWatermark = max(
+                    nextWatermark,
+                    UPDATED_AT.equals(column) ? row.updatedAt : row.publishedAt
+                );
+            }
+            total += rows.size();
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+        }
+
+        database.rebuildLatestShelf(MediaSessionCallback.NODE_EPISODES, floor);
+        database.setSyncState(
+            UPDATED_AT.equals(column) ? EPISODES_UPDATED_WATERMARK : EPISODES_WATERMARK,
+            nextWatermark
+        );
+        Log.i(TAG, "syncEpisodes: " + total + " with " + column + " since " + watermark);
+        return true;
+    }
+
+    // Progress has no useful watermark across devices and the list is short, so take page one
+    private boolean syncContinueListening(
+        SupabaseApi api,
+        CatalogDatabase database,
+        AutoAuthConfig config,
+        AtomicBoolean cancelled
+    ) throws Exception {
+        if (cancelled.get()) {
+            return false;
+        }
+        if (!config.isValidForAuth() || config.isTokenExpired()) {
+            return true;
+        }
+
+        database.replaceContinueItems(
+            MediaSessionCallback.continueShelf(config),
+            SHELF_PAGE_SIZE,
+            0,
+            api.fetchContinueListening(SHELF_PAGE_SIZE, 0)
+        );
+        return true;
+    }
+
+    // PostgREST timestamps share one ISO-8601 format, so string order is time order
+    private static String max(String current, String candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) > 0 ? candidate : current;
+    }
+
+    private static String min(String current, String candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        return current == null || candidate.compareTo(current) < 0 ? candidate : current;
+    }
+}
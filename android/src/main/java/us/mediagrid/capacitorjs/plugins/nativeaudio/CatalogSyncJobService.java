@@ -0,0 +1,101 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs {@link CatalogSync} in the background so Android Auto opens on a fresh catalog. JobInfo
+ * constraints are all-of, so "unmetered or charging" is two periodic jobs sharing this service;
+ * whichever fires first does the work and the other finds nothing new.
+ */
+public class CatalogSyncJobService extends JobService {
+
+    private static final String TAG = "CatalogSyncJobService";
+    private static final int JOB_ID_UNMETERED = 0x4e410001;
+    private static final int JOB_ID_CHARGING = 0x4e410002;
+    private static final long SYNC_INTERVAL_MS = TimeUnit.HOURS.toMillis(4);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Map<Integer, AtomicBoolean> runningJobs = new ConcurrentHashMap<>();
+
+    public static void schedule(Context context) {
+        JobScheduler scheduler = context.getSystemService(JobScheduler.class);
+        if (scheduler == null) {
+            Log.w(TAG, "schedule: JobScheduler unavailable");
+            return;
+        }
+
+        ComponentName service = new ComponentName(context, CatalogSyncJobService.class);
+        scheduleIfMissing(
+            scheduler,
+            new JobInfo.Builder(JOB_ID_UNMETERED, service)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setPeriodic(SYNC_INTERVAL_MS)
+                .build()
+        );
+        scheduleIfMissing(
+            scheduler,
+            new JobInfo.Builder(JOB_ID_CHARGING, service)
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setRequiresCharging(true)
+                .setPeriodic(SYNC_INTERVAL_MS)
+                .build()
+        );
+    }
+
+    private static void scheduleIfMissing(JobScheduler scheduler, JobInfo job) {
+        if (scheduler.getPendingJob(job.getId()) != null) {
+            return;
+        }
+        if (scheduler.schedule(job) != JobScheduler.RESULT_SUCCESS) {
+            Log.w(TAG, "schedule: could not schedule job " + job.getId());
+        }
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        runningJobs.put(params.getJobId(), cancelled);
+
+        executor.execute(() -> {
+            boolean finished = false;
+            try {
+                finished = new CatalogSync(getApplicationContext()).run(cancelled);
+            } catch (Exception ex) {
+                Log.w(TAG, "Catalog sync failed", ex);
+            } finally {
+                runningJobs.remove(params.getJobId());
+                if (!cancelled.get()) {
+                    jobFinished(params, !finished);
+                }
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        AtomicBoolean cancelled = runningJobs.remove(params.getJobId());
+        if (cancelled != null) {
+            cancelled.set(true);
+        }
+        return true;
+    }
+
+    @Override
+    public void onDestroy() {
+        executor.shutdown();
+        super.onDestroy();
+    }
+}
@@ -0,0 +1,58 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.os.SystemClock;
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failed calls in a row it
+ * opens and rejects calls for {@code openMs}; then it lets a single probe through and closes
+ * again only if that probe succeeds.
+ */
+public class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clock;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this(failureThreshold, openMs, SystemClock::elapsedRealtime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clock = clock;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (consecutiveFailures < failureThreshold) {
+            return true;
+        }
+        if (clock.getAsLong() - openedAt < openMs || probeInFlight) {
+            return false;
+        }
+        probeInFlight = true;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /** Ends a call that had no outcome (it was interrupted), so a later call can probe again. */
+    public synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (consecutiveFailures >= failureThreshold) {
+            openedAt = clock.getAsLong();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** Hex digests used to turn URLs and payloads into file names and cache keys. */
+final class Digests {
+
+    private Digests() {}
+
+    static String sha1(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return hex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            return Integer.toHexString(value.hashCode());
+        }
+    }
+
+    /** The SHA-1 of {@code data}; unlike the string form there is no weaker fallback. */
+    static String sha1(byte[] data) throws NoSuchAlgorithmException {
+        return hex(MessageDigest.getInstance("SHA-1").digest(data));
+    }
+
+    private static String hex(byte[] hash) {
+        StringBuilder builder = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.os.Build;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.offline.Download;
+import androidx.media3.exoplayer.offline.DownloadManager;
+import androidx.media3.exoplayer.offline.DownloadNotificationHelper;
+import androidx.media3.exoplayer.offline.DownloadService;
+import androidx.media3.exoplayer.scheduler.PlatformScheduler;
+import androidx.media3.exoplayer.scheduler.Scheduler;
+import java.util.List;
+
+/**
+ * Keeps {@link EpisodeDownloads} running while the app is in the background, with a progress
+ * notification while downloads are active. When the network drops, the platform scheduler starts
+ * the service again once it is back so paused-by-requirement downloads resume on their own.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class EpisodeDownloadService extends DownloadService {
+
+    public static final String DOWNLOAD_CHANNEL_ID = "download_channel";
+    private static final int FOREGROUND_NOTIFICATION_ID = 0x4e410101;
+    private static final int JOB_ID = 0x4e410003;
+
+    private DownloadNotificationHelper notificationHelper;
+
+    public EpisodeDownloadService() {
+        super(FOREGROUND_NOTIFICATION_ID, DEFAULT_FOREGROUND_NOTIFICATION_UPDATE_INTERVAL);
+    }
+
+    @Override
+    public void onCreate() {
+        createNotificationChannel();
+        super.onCreate();
+    }
+
+    @Override
+    protected DownloadManager getDownloadManager() {
+        return EpisodeDownloads.get(this).getDownloadManager();
+    }
+
+    @Nullable
+    @Override
+    protected Scheduler getScheduler() {
+        return new PlatformScheduler(this, JOB_ID);
+    }
+
+    @Override
+    protected Notification getForegroundNotification(
+        List<Download> downloads,
+        int notMetRequirements
+    ) {
+        if (notificationHelper == null) {
+            notificationHelper = new DownloadNotificationHelper(this, DOWNLOAD_CHANNEL_ID);
+        }
+        return notificationHelper.buildProgressNotification(
+            this,
+            getApplicationInfo().icon,
+            null,
+            null,
+            downloads,
+            notMetRequirements
+        );
+    }
+
+    private void createNotificationChannel() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+
+        NotificationManager manager = getSystemService(NotificationManager.class);
+        if (manager == null || manager.getNotificationChannel(DOWNLOAD_CHANNEL_ID) != null) {
+            return;
+        }
+
+        NotificationChannel channel = new NotificationChannel(
+            DOWNLOAD_CHANNEL_ID,
+            "Episode downloads",
+            NotificationManager.IMPORTANCE_LOW
+        );
+        channel.setShowBadge(false);
+        manager.createNotificationChannel(channel);
+    }
+}
@@ -0,0 +1,217 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.ContentMetadata;
+import androidx.media3.datasource.cache.NoOpCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import androidx.media3.exoplayer.offline.Download;
+import androidx.media3.exoplayer.offline.DownloadCursor;
+import androidx.media3.exoplayer.offline.DownloadManager;
+import androidx.media3.exoplayer.offline.DownloadRequest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Episodes kept for offline listening. Media3's {@link DownloadManager} runs at most
+ * {@link #MAX_PARALLEL_DOWNLOADS} downloads at a time, persists its queue in the shared Media3
+ * database and resumes an interrupted download with a range request from the last cached byte.
+ *
+ * <p>Downloads live in their own unbounded cache under the app's files directory, keyed by episode
+ * like {@link MediaCache}, so a player reading an episode key finds the downloaded copy before it
+ * goes to the streaming cache or the network. Each request carries the title, subtitle and
+ * artwork the library needs to list it without a catalog or a connection.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class EpisodeDownloads {
+
+    private static final String TAG = "EpisodeDownloads";
+    private static final String DIRECTORY = "downloads";
+    private static final int MAX_PARALLEL_DOWNLOADS = 2;
+    private static final String DATA_TITLE = "title";
+    private static final String DATA_SUBTITLE = "subtitle";
+    private static final String DATA_ARTWORK_URL = "artworkUrl";
+
+    public static final int STOP_REASON_PAUSED = 1;
+
+    private static volatile EpisodeDownloads instance;
+
+    private final SimpleCache cache;
+    private final DownloadManager downloadManager;
+
+    private EpisodeDownloads(Context context) {
+        this.cache = new SimpleCache(
+            new File(context.getFilesDir(), DIRECTORY),
+            new NoOpCacheEvictor(),
+            MediaCache.databaseProvider(context)
+        );
+        this.downloadManager = new DownloadManager(
+            context,
+            MediaCache.databaseProvider(context),
+            cache,
+            new OkHttpDataSource.Factory(SharedHttpClient.get(context)),
+            Executors.newFixedThreadPool(MAX_PARALLEL_DOWNLOADS)
+        );
+        downloadManager.setMaxParallelDownloads(MAX_PARALLEL_DOWNLOADS);
+    }
+
+    public static EpisodeDownloads get(Context context) {
+        if (instance == null) {
+            synchronized (EpisodeDownloads.class) {
+                if (instance == null) {
+                    instance = new EpisodeDownloads(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    public DownloadManager getDownloadManager() {
+        return downloadManager;
+    }
+
+    public static DownloadRequest buildRequest(
+        String episodeId,
+        String url,
+        @Nullable String title,
+        @Nullable String subtitle,
+        @Nullable String artworkUrl
+    ) {
+        JSONObject data = new JSONObject();
+        try {
+            data.put(DATA_TITLE, title);
+            data.put(DATA_SUBTITLE, subtitle);
+            data.put(DATA_ARTWORK_URL, artworkUrl);
+        } catch (JSONException ex) {
+            throw new IllegalArgumentException("Invalid download metadata", ex);
+        }
+
+        return new DownloadRequest.Builder(episodeId, Uri.parse(url))
+            .setCustomCacheKey(MediaCache.episodeKey(episodeId))
+            .setData(data.toString().getBytes(StandardCharsets.UTF_8))
+            .build();
+    }
+
+    /**
+     * Wraps the streaming data source factory so fully or partly downloaded episodes are read from
+     * the download cache first. Playback never writes here; only the download manager does.
+     */
+    public CacheDataSource.Factory dataSourceFactory(DataSource.Factory upstream) {
+        return new CacheDataSource.Factory()
+            .setCache(cache)
+            .setUpstreamDataSourceFactory(upstream)
+            .setCacheWriteDataSinkFactory(null)
+            .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+    }
+
+    /** Whether the first {@code length} bytes of {@code key}, or all of a shorter file, exist. */
+    public boolean hasDownloaded(String key, long length) {
+        long contentLength = ContentMetadata.getContentLength(cache.getContentMetadata(key));
+        long needed = contentLength != C.LENGTH_UNSET ? Math.min(length, contentLength) : length;
+        return needed > 0 && cache.getCachedBytes(key, 0, needed) >= needed;
+    }
+
+    /**
+     * The finished downloads by episode id, read from the download index in one pass; empty if the
+     * index cannot be read.
+     */
+    public Map<String, Download> getCompletedById() {
+        Map<String, Download> completed = new HashMap<>();
+        try {
+            for (Download download : getCompletedDownloads()) {
+                completed.put(download.request.id, download);
+            }
+        } catch (IOException ex) {
+            Log.w(TAG, "Could not read the download index", ex);
+        }
+        return completed;
+    }
+
+    /** Every download in the index, most recently updated first; reads the download index. */
+    public List<Download> getDownloads() throws IOException {
+        List<Download> downloads = new ArrayList<>();
+        try (DownloadCursor cursor = downloadManager.getDownloadIndex().getDownloads()) {
+            while (cursor.moveToNext()) {
+                downloads.add(cursor.getDownload());
+            }
+        }
+        downloads.sort((a, b) -> Long.compare(b.updateTimeMs, a.updateTimeMs));
+        return downloads;
+    }
+
+    public List<Download> getCompletedDownloads() throws IOException {
+        List<Download> completed = new ArrayList<>();
+        for (Download download : getDownloads()) {
+            if (download.state == Download.STATE_COMPLETED) {
+                completed.add(download);
+            }
+        }
+        return completed;
+    }
+
+    /** The episode a download was requested for, rebuilt from the metadata stored with it. */
+    public static SupabaseApi.AutoEpisode episodeOf(Download download) {
+        JSONObject data = metadataOf(download);
+        String artworkUrl = data.optString(DATA_ARTWORK_URL, null);
+        return new SupabaseApi.AutoEpisode(
+            download.request.id,
+            data.optString(DATA_TITLE, null),
+            null,
+            artworkUrl,
+            download.request.uri.toString(),
+            null,
+            null,
+            data.optString(DATA_SUBTITLE, null),
+            artworkUrl
+        );
+    }
+
+    public static JSONObject metadataOf(Download download) {
+        if (download.request.data.length == 0) {
+            return new JSONObject();
+        }
+        try {
+            return new JSONObject(new String(download.request.data, StandardCharsets.UTF_8));
+        } catch (JSONException ex) {
+            Log.w(TAG, "Unreadable metadata for download " + download.request.id, ex);
+            return new JSONObject();
+        }
+    }
+
+    public static String stateName(Download download) {
+        switch (download.state) {
+            case Download.STATE_QUEUED:
+                return "queued";
+            case Download.STATE_STOPPED:
+                return download.stopReason == STOP_REASON_PAUSED ? "paused" : "stopped";
+            case Download.STATE_DOWNLOADING:
+                return "downloading";
+            case Download.STATE_COMPLETED:
+                return "completed";
+            case Download.STATE_FAILED:
+                return "failed";
+            case Download.STATE_REMOVING:
+                return "removing";
+            case Download.STATE_RESTARTING:
+                return "restarting";
+            default:
+                return "unknown";
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.util.Log;
+import androidx.annotation.Nullable;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs library work on a small pool in priority order: playback queue builds first, then the
+ * browse page a user is looking at, then prefetch, refresh and artwork. Background work never
+ * takes the last thread, so a tap to play always finds one free once the current tasks finish.
+ *
+ * <p>Tasks can carry a tag; cancelling a tag, or the returned future, drops queued work and
+ * interrupts running work (OkHttp gives up at its next read). A cancelled task that owned a
+ * {@link SingleFlight} load hands it to the next waiter rather than failing it.
+ */
+public class LibraryScheduler {
+
+    public enum Priority {
+        PLAYBACK,
+        BROWSE,
+        BACKGROUND,
+    }
+
+    private static final String TAG = "LibraryScheduler";
+
+    private final int threads;
+    private final ExecutorService workers;
+    private final PriorityQueue<Task<?>> queue = new PriorityQueue<>();
+    private final Set<Task<?>> running = new HashSet<>();
+    private int runningBackground = 0;
+    private long nextSequence = 0;
+    private boolean shutdown = false;
+
+    public LibraryScheduler(String name, int threads) {
+        this.threads = Math.max(2, threads);
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.workers = Executors.newFixedThreadPool(this.threads, factory);
+    }
+
+    public <V> ListenableFuture<V> submit(
+        Priority priority,
+        @Nullable String tag,
+        Callable<V> work
+    ) {
+        Task<V> task;
+        synchronized (this) {
+            task = new Task<>(priority, nextSequence++, tag, work);
+            if (shutdown) {
+                task.future.setException(new CancellationException("scheduler shut down"));
+                return task.future;
+            }
+            queue.add(task);
+        }
+        task.future.addListener(
+            () -> {
+                if (task.future.isCancelled()) {
+                    cancel(task);
+                }
+            },
+            MoreExecutors.directExecutor()
+        );
+        dispatch();
+        return task.future;
+    }
+
+    public void execute(Priority priority, Runnable work) {
+        submit(
+            priority,
+            null,
+            () -> {
+                work.run();
+                return null;
+            }
+        );
+    }
+
+    /** Cancels every queued or running task whose tag starts with {@code tagPrefix}. */
+    public void cancel(String tagPrefix) {
+        List<Task<?>> matches = new ArrayList<>();
+        synchronized (this) {
+            for (Task<?> task : queue) {
+                if (task.tag != null && task.tag.startsWith(tagPrefix)) {
+                    matches.add(task);
+                }
+            }
+            for (Task<?> task : running) {
+                if (task.tag != null && task.tag.startsWith(tagPrefix)) {
+                    matches.add(task);
+                }
+            }
+        }
+        for (Task<?> task : matches) {
+            task.future.cancel(true);
+        }
+        if (!matches.isEmpty()) {
+            Log.i(TAG, "cancel: " + matches.size() + " tasks for " + tagPrefix);
+        }
+    }
+
+    /** Cancels all work and stops the pool; later submissions fail immediately. */
+    public void shutdown() {
+        List<Task<?>> pending;
+        synchronized (this) {
+            shutdown = true;
+            pending = new ArrayList<>(queue);
+            pending.addAll(running);
+            queue.clear();
+        }
+        for (Task<?> task : pending) {
+            task.future.cancel(true);
+        }
+        workers.shutdownNow();
+    }
+
+    private void cancel(Task<?> task) {
+        synchronized (this) {
+            if (queue.remove(task)) {
+                return;
+            }
+        }
+        task.interrupt();
+    }
+
+    private void dispatch() {
+        List<Task<?>> started = new ArrayList<>();
+        synchronized (this) {
+            while (!shutdown && running.size() < threads) {
+                Task<?> next = queue.peek();
+                if (next == null) {
+                    break;
+                }
+                if (next.priority == Priority.BACKGROUND && runningBackground >= threads - 1) {
+                    break;
+                }
+                queue.poll();
+                running.add(next);
+                if (next.priority == Priority.BACKGROUND) {
+                    runningBackground++;
+                }
+                started.add(next);
+            }
+        }
+        for (Task<?> task : started) {
+            workers.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    finished(task);
+                }
+            });
+        }
+    }
+
+    private void finished(Task<?> task) {
+        synchronized (this) {
+            running.remove(task);
+            if (task.priority == Priority.BACKGROUND) {
+                runningBackground--;
+            }
+        }
+        dispatch();
+    }
+
+    private static final class Task<V> implements Comparable<Task<?>> {
+
+        final Priority priority;
+        final long sequence;
+        final String tag;
+        final Callable<V> work;
+        final SettableFuture<V> future = SettableFuture.create();
+        private Thread runner;
+
+        Task(Priority priority, long sequence, @Nullable String tag, Callable<V> work) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.tag = tag;
+            this.work = work;
+        }
+
+        void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                future.set(work.call());
+            } catch (Throwable ex) {
+                future.setException(ex);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // Clear an interrupt that raced the end of the task so it cannot leak
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.DatabaseProvider;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.TransferListener;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheEvictor;
+import androidx.media3.datasource.cache.CacheSpan;
+import androidx.media3.datasource.cache.SimpleCache;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded disk cache in front of the players, so replaying an episode, seeking back after a
+ * dropped connection or moving playback from phone to car reads bytes we already fetched. Entries
+ * are keyed by episode (the MediaItem's custom cache key) rather than the signed audio URL, so a
+ * re-signed URL still hits. Live streams have no length and bypass the cache.
+ *
+ * <p>The size and eviction policy are persisted. A new size applies at once; a new policy applies
+ * the next time the cache is opened, because the cache reads it on open.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class MediaCache {
+
+    private static final String TAG = "MediaCache";
+    private static final String DIRECTORY = "media";
+    private static final String PREFS_NAME = "native_audio_media_cache";
+    private static final String KEY_MAX_BYTES = "max_bytes";
+    private static final String KEY_EVICTION_POLICY = "eviction_policy";
+    private static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+    private static final long MIN_MAX_BYTES = 16L * 1024 * 1024;
+    private static final String EPISODE_KEY_PREFIX = "episode:";
+    private static final String SIGNED_OBJECT_PATH = "/storage/v1/object/sign/";
+
+    public static final String POLICY_LRU = "lru";
+    public static final String POLICY_FIFO = "fifo";
+
+    private static volatile MediaCache instance;
+    private static volatile DatabaseProvider databaseProvider;
+
+    private final Context context;
+    private final Evictor evictor;
+    private final SimpleCache cache;
+    private final AtomicLong cacheHitBytes = new AtomicLong();
+    private final AtomicLong networkBytes = new AtomicLong();
+
+    private MediaCache(Context context) {
+        this.context = context;
+        SharedPreferences prefs = prefs(context);
+        String policy = prefs.getString(KEY_EVICTION_POLICY, POLICY_LRU);
+        this.evictor = new Evictor(
+            prefs.getLong(KEY_MAX_BYTES, DEFAULT_MAX_BYTES),
+            !POLICY_FIFO.equals(policy)
+        );
+        this.cache = new SimpleCache(
+            new File(context.getCacheDir(), DIRECTORY),
+            evictor,
+            databaseProvider(context)
+        );
+        Log.i(TAG, "Opened media cache, policy=" + policy + " max=" + evictor.maxBytes);
+    }
+
+    public static MediaCache get(Context context) {
+        if (instance == null) {
+            synchronized (MediaCache.class) {
+                if (instance == null) {
+                    instance = new MediaCache(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Media3 keeps cache and download indexes in one database, so every user shares this. */
+    static DatabaseProvider databaseProvider(Context context) {
+        if (databaseProvider == null) {
+            synchronized (MediaCache.class) {
+                if (databaseProvider == null) {
+                    databaseProvider = new StandaloneDatabaseProvider(
+                        context.getApplicationContext()
+                    );
+                }
+            }
+        }
+        return databaseProvider;
+    }
+
+    public static String episodeKey(String episodeId) {
+        return EPISODE_KEY_PREFIX + episodeId;
+    }
+
+    /**
+     * Cache key for a plain audio URL: signed storage URLs drop their token so re-signing still
+     * hits; null (the URL itself is the key) for anything else.
+     */
+    @Nullable
+    public static String sourceKey(@Nullable String url) {
+        if (url == null || !url.contains(SIGNED_OBJECT_PATH)) {
+            return null;
+        }
+        int queryAt = url.indexOf('?');
+        return queryAt >= 0 ? url.substring(0, queryAt) : url;
+    }
+
+    /** Wraps an http data source factory so reads go through the cache. */
+    public CacheDataSource.Factory dataSourceFactory(DataSource.Factory upstream) {
+        TransferListener networkCounter = new TransferListener() {
+            @Override
+            public void onTransferInitializing(
+                DataSource source,
+                DataSpec dataSpec,
+                boolean isNetwork
+            ) {}
+
+            @Override
+            public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+
+            @Override
+            public void onBytesTransferred(
+                DataSource source,
+                DataSpec dataSpec,
+                boolean isNetwork,
+                int bytesTransferred
+            ) {
+                if (isNetwork) {
+                    networkBytes.addAndGet(bytesTransferred);
+                }
+            }
+
+            @Override
+            public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {}
+        };
+
+        return new CacheDataSource.Factory()
+            .setCache(cache)
+            .setUpstreamDataSourceFactory(() -> {
+                DataSource dataSource = upstream.createDataSource();
+                dataSource.addTransferListener(networkCounter);
+                return dataSource;
+            })
+            .setFlags(
+                CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR |
+                CacheDataSource.FLAG_IGNORE_CACHE_FOR_UNSET_LENGTH_REQUESTS
+            )
+            .setEventListener(
+                new CacheDataSource.EventListener() {
+                    @Override
+                    public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+                        cacheHitBytes.addAndGet(cachedBytesRead);
+                    }
+
+                    @Override
+                    public void onCacheIgnored(int reason) {}
+                }
+            );
+    }
+
+    /** Persists a new size and/or policy; either may be null to keep the current one. */
+    public void configure(@Nullable Long maxBytes, @Nullable String evictionPolicy) {
+        if (
+            evictionPolicy != null &&
+            !POLICY_LRU.equals(evictionPolicy) &&
+            !POLICY_FIFO.equals(evictionPolicy)
+        ) {
+            throw new IllegalArgumentException("Unknown eviction policy " + evictionPolicy);
+        }
+
+        SharedPreferences.Editor editor = prefs(context).edit();
+        if (maxBytes != null) {
+            long bounded = Math.max(MIN_MAX_BYTES, maxBytes);
+            editor.putLong(KEY_MAX_BYTES, bounded);
+            synchronized (cache) {
+                evictor.maxBytes = bounded;
+                evictor.evict(cache, 0);
+            }
+        }
+        if (evictionPolicy != null) {
+            editor.putString(KEY_EVICTION_POLICY, evictionPolicy);
+        }
+        editor.apply();
+    }
+
+    public Stats stats() {
+        return new Stats(
+            cache.getCacheSpace(),
+            evictor.maxBytes,
+            prefs(context).getString(KEY_EVICTION_POLICY, POLICY_LRU),
+            cache.getKeys().size(),
+            cacheHitBytes.get(),
+            networkBytes.get()
+        );
+    }
+
+    /** Bytes cached from the start of {@code key}, up to {@code length}; 0 or less if none. */
+    public long cachedBytes(String key, long length) {
+        return cache.getCachedBytes(key, 0, length);
+    }
+
+    public void remove(String key) {
+        cache.removeResource(key);
+    }
+
+    public void clear() {
+        for (String key : new ArrayList<>(cache.getKeys())) {
+            cache.removeResource(key);
+        }
+        Log.i(TAG, "Cleared media cache");
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static class Stats {
+
+        public final long usedBytes;
+        public final long maxBytes;
+        public final String evictionPolicy;
+        public final int cachedItems;
+        public final long cacheHitBytes;
+        public final long networkBytes;
+
+        Stats(
+            long usedBytes,
+            long maxBytes,
+            String evictionPolicy,
+            int cachedItems,
+            long cacheHitBytes,
+            long networkBytes
+        ) {
+            this.usedBytes = usedBytes;
+            this.maxBytes = maxBytes;
+            this.evictionPolicy = evictionPolicy;
+            this.cachedItems = cachedItems;
+            this.cacheHitBytes = cacheHitBytes;
+            this.networkBytes = networkBytes;
+        }
+    }
+
+    /**
+     * Evicts the oldest spans first. With touches on (LRU) a read refreshes a span; with touches
+     * off (FIFO) a span keeps the timestamp it was written with. Unlike Media3's LRU evictor the
+     * size can change while the cache is open.
+     */
+    static final class Evictor implements CacheEvictor {
+
+        private final boolean touchSpans;
+        private final TreeSet<CacheSpan> spans = new TreeSet<>((a, b) -> {
+            if (a.lastTouchTimestamp != b.lastTouchTimestamp) {
+                return Long.compare(a.lastTouchTimestamp, b.lastTouchTimestamp);
+            }
+            return a.compareTo(b);
+        });
+        volatile long maxBytes;
+        private long currentSize = 0;
+
+        Evictor(long maxBytes, boolean touchSpans) {
+            this.maxBytes = maxBytes;
+            this.touchSpans = touchSpans;
+        }
+
+        @Override
+        public boolean requiresCacheSpanTouches() {
+            return touchSpans;
+        }
+
+        @Override
+        public void onCacheInitialized() {}
+
+        @Override
+        public void onStartFile(Cache cache, String key, long position, long length) {
+            if (length != C.LENGTH_UNSET) {
+                evict(cache, length);
+            }
+        }
+
+        @Override
+        public void onSpanAdded(Cache cache, CacheSpan span) {
+            spans.add(span);
+            currentSize += span.length;
+            evict(cache, 0);
+        }
+
+        @Override
+        public void onSpanRemoved(Cache cache, CacheSpan span) {
+            spans.remove(span);
+            currentSize -= span.length;
+        }
+
+        @Override
+        public void onSpanTouched(Cache cache, CacheSpan oldSpan, CacheSpan newSpan) {
+            onSpanRemoved(cache, oldSpan);
+            onSpanAdded(cache, newSpan);
+        }
+
+        void evict(Cache cache, long requiredSpace) {
+            List<CacheSpan> evicted = new ArrayList<>();
+            long size = currentSize;
+            for (CacheSpan span : spans) {
+                if (size + requiredSpace <= maxBytes) {
+                    break;
+                }
+                evicted.add(span);
+                size -= span.length;
+            }
+            for (CacheSpan span : evicted) {
+                cache.removeSpan(span);
+            }
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package us.mediagrid.capacitorjs.plugins.nativeaudio;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.net.Uri;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.util.Log;
 import android.util.LruCache;
 import androidx.annotation.IntRange;
@@ -13,6 +14,7 @@ import androidx.media3.common.C;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.MediaMetadata;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.offline.Download;
 import androidx.media3.session.LibraryResult;
 import androidx.media3.session.MediaLibraryService.LibraryParams;
 import androidx.media3.session.MediaLibraryService.MediaLibrarySession;
@@ -24,15 +26,23 @@ import androidx.media3.session.SessionResult;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MediaSessionCallback implements MediaLibrarySession.Callback {
 
@@ -43,34 +53,61 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
     public static final String SET_PLAYLIST_STATE = "SetPlaylistState";
     public static final String SKIP_NEXT = "SkipNext";
     public static final String SKIP_PREVIOUS = "SkipPrevious";
+    public static final String GET_BUFFER_STATS = "GetBufferStats";
     static final String ROOT_ID = "root";
-    private static final String NODE_SERIES = "root/series";
-    private static final String NODE_CONTINUE = "root/continue";
-    private static final String NODE_EPISODES = "root/episodes";
+    static final String NODE_SERIES = "root/series";
+    static final String NODE_CONTINUE = "root/continue";
+    static final String NODE_EPISODES = "root/episodes";
+    static final String NODE_DOWNLOADS = "root/downloads";
     private static final String NODE_LOGIN = "root/login";
     private static final String MEDIA_ID_NOW_PLAYING = "now_playing";
     private static final String EPISODE_LATEST_PREFIX = "episode/latest/";
     private static final String EPISODE_SERIES_PREFIX = "episode/series/";
     private static final String EPISODE_CONTINUE_PREFIX = "episode/continue/";
+    private static final String EPISODE_SEARCH_PREFIX = "episode/search/";
+    private static final String EPISODE_DOWNLOADED_PREFIX = "episode/downloaded/";
+    // MediaDescriptionCompat.EXTRA_DOWNLOAD_STATUS / STATUS_DOWNLOADED, read by Android Auto
+    private static final String EXTRA_DOWNLOAD_STATUS = "android.media.extra.DOWNLOAD_STATUS";
+    private static final long STATUS_DOWNLOADED = 2;
+    private static final int LIBRARY_THREADS = 4;
     private static final int DEFAULT_PAGE_SIZE = 50;
-    private static final int ARTWORK_MAX_BYTES = 6 * 1024 * 1024;
-    private static final int ARTWORK_CACHE_MAX_BYTES = 8 * 1024 * 1024;
-    private static final int ARTWORK_MAX_DIM_PX = 512;
-    private static final int ARTWORK_COMPRESS_QUALITY = 85;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long SERIES_TTL_MS = 10 * 60 * 1000;
+    private static final long SERIES_EPISODES_TTL_MS = 10 * 60 * 1000;
+    private static final long LATEST_EPISODES_TTL_MS = 5 * 60 * 1000;
+    private static final long CONTINUE_TTL_MS = 60 * 1000;
+    private static final int PREFETCH_PAGE_SIZE = DEFAULT_PAGE_SIZE;
+    private static final int PREFETCH_VISIBLE_ROWS = 8;
+    private static final long PREFETCH_COOLDOWN_MS = 60 * 1000;
+    private static final int SEARCH_REMOTE_LIMIT = 50;
+    private static final int SEARCH_CACHE_ENTRIES = 16;
     private static final String TAG = "MediaSessionCallback";
+    // Browsers that may read artwork even when the platform does not report them as trusted
+    private static final Set<String> ARTWORK_BROWSERS = new HashSet<>(
+        Arrays.asList(
+            "com.google.android.projection.gearhead",
+            "com.android.car.media",
+            "com.android.systemui"
+        )
+    );
 
     private AudioPlayerService audioService;
-    private final ExecutorService libraryExecutor = Executors.newSingleThreadExecutor();
-    private final LruCache<String, byte[]> artworkCache =
-        new LruCache<>(ARTWORK_CACHE_MAX_BYTES) {
-            @Override
-            protected int sizeOf(String key, byte[] value) {
-                return value == null ? 0 : value.length;
-            }
-        };
-
-    public MediaSessionCallback(AudioPlayerService audioService) {
+    private final LibraryScheduler scheduler = new LibraryScheduler("library", LIBRARY_THREADS);
+    // Local index reads stay off the library scheduler so they never queue behind network loads
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final PrefetchBudget prefetchBudget;
+    private final AtomicLong lastPrefetchAt = new AtomicLong(0);
+    private final LruCache<String, List<CatalogDatabase.SearchHit>> searchResults =
+        new LruCache<>(SEARCH_CACHE_ENTRIES);
+    private final CatalogStore catalogStore = new CatalogStore();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean seriesFallbackToPublic = false;
+    // Connected controllers per package holding an artwork grant; touched on the main thread only
+    private final Map<String, Integer> artworkGrants = new HashMap<>();
+
+    public MediaSessionCallback(AudioPlayerService audioService, PrefetchBudget prefetchBudget) {
         this.audioService = audioService;
+        this.prefetchBudget = prefetchBudget;
     }
 
     @OptIn(markerClass = UnstableApi.class)
@@ -87,13 +124,67 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                 .add(new SessionCommand(SET_PLAYLIST_STATE, new Bundle()))
                 .add(new SessionCommand(SKIP_NEXT, new Bundle()))
                 .add(new SessionCommand(SKIP_PREVIOUS, new Bundle()))
+                .add(new SessionCommand(GET_BUFFER_STATS, new Bundle()))
                 .build();
 
-        return new MediaLibrarySession.ConnectionResult.AcceptedResultBuilder((MediaLibrarySession) session)
+        MediaLibrarySession librarySession = (MediaLibrarySession) session;
+        // The app's own controller never browses, so only external browsers warm the tree
+        if (!audioService.getPackageName().equals(controller.getPackageName())) {
+            grantArtworkAccess(controller);
+            if (isLoggedIn(librarySession)) {
+                prefetchBrowseTree();
+            }
+        }
+
+        return new MediaLibrarySession.ConnectionResult.AcceptedResultBuilder(librarySession)
             .setAvailableSessionCommands(sessionCommands)
             .build();
     }
 
+    @Override
+    public void onDisconnected(MediaSession session, MediaSession.ControllerInfo controller) {
+        scheduler.cancel(browserTag(controller));
+        revokeArtworkAccess(controller);
+    }
+
+    private void grantArtworkAccess(MediaSession.ControllerInfo controller) {
+        String packageName = controller.getPackageName();
+        if (!controller.isTrusted() && !ARTWORK_BROWSERS.contains(packageName)) {
+            Log.i(TAG, "Not granting artwork access to untrusted controller " + packageName);
+            return;
+        }
+        Integer connections = artworkGrants.get(packageName);
+        if (connections == null) {
+            ArtworkProvider.grantAccess(audioService.getApplicationContext(), packageName);
+            connections = 0;
+        }
+        artworkGrants.put(packageName, connections + 1);
+    }
+
+    private void revokeArtworkAccess(MediaSession.ControllerInfo controller) {
+        String packageName = controller.getPackageName();
+        Integer connections = artworkGrants.get(packageName);
+        if (connections == null) {
+            return;
+        }
+        if (connections > 1) {
+            artworkGrants.put(packageName, connections - 1);
+            return;
+        }
+        artworkGrants.remove(packageName);
+        ArtworkProvider.revokeAccess(audioService.getApplicationContext(), packageName);
+    }
+
+    @Override
+    public ListenableFuture<LibraryResult<Void>> onUnsubscribe(
+        MediaLibrarySession session,
+        MediaSession.ControllerInfo browser,
+        String parentId
+    ) {
+        scheduler.cancel(browseTag(browser, parentId));
+        return Futures.immediateFuture(LibraryResult.ofVoid());
+    }
+
     @Override
     public ListenableFuture<SessionResult> onCustomCommand(
         MediaSession session,
@@ -113,6 +204,15 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             Bundle extras = new Bundle();
             extras.putBoolean(EXTRA_IS_LOGGED_IN, isLoggedIn);
             updateSessionExtras(session, extras);
+            catalogStore.clear();
+            searchResults.evictAll();
+            seriesFallbackToPublic = false;
+            lastPrefetchAt.set(0);
+            if (!isLoggedIn) {
+                scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () ->
+                    catalogDatabase().clearShelves(NODE_CONTINUE + "/")
+                );
+            }
             audioService.notifyLibraryRootChanged("loginState=" + isLoggedIn);
         } else if (customCommand.customAction.equals(SET_PLAYLIST_STATE)) {
             boolean hasPlaylist = args.getBoolean("hasPlaylist", false);
@@ -124,6 +224,13 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         } else if (customCommand.customAction.equals(CREATE_PLAYER)) {
             AudioSource source = (AudioSource) customCommand.customExtras.getBinder("audioSource");
             source.initialize(audioService);
+        } else if (customCommand.customAction.equals(GET_BUFFER_STATS)) {
+            Bundle stats = audioService.getBufferStats();
+            return Futures.immediateFuture(
+                stats != null
+                    ? new SessionResult(SessionResult.RESULT_SUCCESS, stats)
+                    : new SessionResult(SessionResult.RESULT_ERROR_INVALID_STATE)
+            );
         }
 
         return Futures.immediateFuture(new SessionResult(SessionResult.RESULT_SUCCESS));
@@ -189,6 +296,19 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         List<MediaItem> mediaItems,
         int startIndex,
         long startPositionMs
+    ) {
+        return Futures.transform(
+            resolveQueue(mediaItems, startIndex, startPositionMs),
+            this::withPlaybackArtwork,
+            MoreExecutors.directExecutor()
+        );
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ListenableFuture<MediaItemsWithStartPosition> resolveQueue(
+        List<MediaItem> mediaItems,
+        int startIndex,
+        long startPositionMs
     ) {
         if (mediaItems == null || mediaItems.isEmpty()) {
             return Futures.immediateFuture(
@@ -215,6 +335,11 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             }
         }
 
+        MediaItemsWithStartPosition cachedQueue = queueFromCachedPage(mediaId, startPositionMs);
+        if (cachedQueue != null) {
+            return Futures.immediateFuture(cachedQueue);
+        }
+
         if (mediaId.startsWith(EPISODE_LATEST_PREFIX)) {
             String episodeId = mediaId.substring(EPISODE_LATEST_PREFIX.length());
             return buildQueueFromLatest(mediaItems, episodeId, startPositionMs);
@@ -233,6 +358,16 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             }
         }
 
+        if (mediaId.startsWith(EPISODE_SEARCH_PREFIX)) {
+            String episodeId = mediaId.substring(EPISODE_SEARCH_PREFIX.length());
+            return buildQueueFromSearch(mediaItems, episodeId, startPositionMs);
+        }
+
+        if (mediaId.startsWith(EPISODE_DOWNLOADED_PREFIX)) {
+            String episodeId = mediaId.substring(EPISODE_DOWNLOADED_PREFIX.length());
+            return buildQueueFromDownloads(mediaItems, episodeId, startPositionMs);
+        }
+
         return Futures.immediateFuture(
             new MediaItemsWithStartPosition(mediaItems, startIndex, startPositionMs)
         );
@@ -265,7 +400,8 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             ImmutableList.Builder<MediaItem> items = ImmutableList.builder();items.add(
                 buildBrowsableItem(NODE_SERIES, "Series", "Browse series"),
                 buildBrowsableItem(NODE_CONTINUE, "Continue Listening", "Pick up where you left off"),
-                buildBrowsableItem(NODE_EPISODES, "Episodes", "Latest episodes")
+                buildBrowsableItem(NODE_EPISODES, "Episodes", "Latest episodes"),
+                buildBrowsableItem(NODE_DOWNLOADS, "Downloaded", "Listen offline")
             );
             return Futures.immediateFuture(LibraryResult.ofItemList(items.build(), params));
         }
@@ -274,21 +410,69 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             return Futures.immediateFuture(LibraryResult.ofItemList(ImmutableList.of(), params));
         }
 
+        // Pages start where the browser's page size puts them; only the fetch itself is capped
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+        int offset = (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+
         if (NODE_SERIES.equals(parentId)) {
-            return fetchSeriesItems(params);
+            return serveNode(
+                session,
+                browser,
+                parentId,
+                offset,
+                limit,
+                SERIES_TTL_MS,
+                params,
+                () -> snapshotSeriesItems(limit, offset),
+                () -> loadSeriesItems(limit, offset)
+            );
         }
 
         if (parentId != null && parentId.startsWith("series/")) {
             String seriesId = parentId.substring("series/".length());
-            return fetchSeriesEpisodes(seriesId, params);
+            return serveNode(
+                session,
+                browser,
+                parentId,
+                offset,
+                limit,
+                SERIES_EPISODES_TTL_MS,
+                params,
+                () -> snapshotSeriesEpisodes(seriesId, limit, offset),
+                () -> loadSeriesEpisodes(seriesId, limit, offset)
+            );
         }
 
         if (NODE_EPISODES.equals(parentId)) {
-            return fetchLatestEpisodes(params);
+            return serveNode(
+                session,
+                browser,
+                parentId,
+                offset,
+                limit,
+                LATEST_EPISODES_TTL_MS,
+                params,
+                () -> snapshotLatestEpisodes(limit, offset),
+                () -> loadLatestEpisodes(limit, offset)
+            );
         }
 
         if (NODE_CONTINUE.equals(parentId)) {
-            return fetchContinueListening(params);
+            return serveNode(
+                session,
+                browser,
+                parentId,
+                offset,
+                limit,
+                CONTINUE_TTL_MS,
+                params,
+                () -> snapshotContinueListening(limit, offset),
+                () -> loadContinueListening(limit, offset)
+            );
+        }
+
+        if (NODE_DOWNLOADS.equals(parentId)) {
+            return serveDownloads(limit, offset, params);
         }
 
         return Futures.immediateFuture(LibraryResult.ofItemList(ImmutableList.of(), params));
@@ -301,7 +485,22 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         String query,
         @Nullable LibraryParams params
     ) {
-        return Futures.immediateFuture(LibraryResult.ofError(LibraryResult.RESULT_ERROR_NOT_SUPPORTED));
+        boolean loggedIn = isLoggedIn(session);
+        searchExecutor.execute(() -> {
+            int count = 0;
+            if (loggedIn) {
+                try {
+                    count = searchCatalog(query).size();
+                } catch (Exception ex) {
+                    Log.w(TAG, "onSearch failed for " + query, ex);
+                }
+            }
+            int resultCount = count;
+            mainHandler.post(() ->
+                session.notifySearchResultChanged(browser, query, resultCount, params)
+            );
+        });
+        return Futures.immediateFuture(LibraryResult.ofVoid(params));
     }
 
     @Override
@@ -313,7 +512,146 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         @IntRange(from = 1) int pageSize,
         @Nullable LibraryParams params
     ) {
-        return Futures.immediateFuture(LibraryResult.ofItemList(ImmutableList.of(), params));
+        if (!isLoggedIn(session)) {
+            return Futures.immediateFuture(LibraryResult.ofItemList(ImmutableList.of(), params));
+        }
+
+        // Offset by the browser's page size, as onGetChildren does; only the slice is capped
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+        int offset = (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+        long generation = catalogStore.generation();
+        SettableFuture<LibraryResult<ImmutableList<MediaItem>>> future = SettableFuture.create();
+        searchExecutor.execute(() -> {
+            try {
+                List<CatalogDatabase.SearchHit> hits = searchCatalog(query);
+                if (hits != null) {
+                    future.set(searchPage(query, hits, offset, limit, generation, params));
+                    return;
+                }
+                // The network fallback runs on the browse lane, where it is cancelled with the
+                // browser and never holds up local searches queued behind it
+                future.setFuture(
+                    scheduler.submit(
+                        LibraryScheduler.Priority.BROWSE,
+                        browseTag(browser, "search/" + searchKey(query)),
+                        () ->
+                            searchPage(
+                                query,
+                                searchRemote(query),
+                                offset,
+                                limit,
+                                generation,
+                                params
+                            )
+                    )
+                );
+            } catch (Exception ex) {
+                Log.w(TAG, "onGetSearchResult failed for " + query, ex);
+                future.set(LibraryResult.ofItemList(ImmutableList.of(), params));
+            }
+        });
+        return future;
+    }
+
+    private LibraryResult<ImmutableList<MediaItem>> searchPage(
+        String query,
+        List<CatalogDatabase.SearchHit> hits,
+        int offset,
+        int limit,
+        long generation,
+        @Nullable LibraryParams params
+    ) {
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        ImmutableList<MediaItem> items = buildSearchItems(hits.subList(from, to));
+        // Lets onSetMediaItems queue the rest of the page the result was picked from
+        catalogStore.put(pageKey("search/" + searchKey(query), offset, limit), items, generation);
+        return LibraryResult.ofItemList(items, params);
+    }
+
+    // Answers from the local index; null means a miss that only Supabase can answer
+    @Nullable
+    private List<CatalogDatabase.SearchHit> searchCatalog(String query) {
+        String key = searchKey(query);
+        List<CatalogDatabase.SearchHit> hits = searchResults.get(key);
+        if (hits != null) {
+            return hits;
+        }
+
+        hits = catalogDatabase().search(query);
+        if (hits.isEmpty() && CatalogDatabase.toMatchExpression(query) != null) {
+            return null;
+        }
+        return cacheSearchResult(key, hits);
+    }
+
+    // The rows a remote search returns join the index and stay pinned there
+    private List<CatalogDatabase.SearchHit> searchRemote(String query) {
+        String key = searchKey(query);
+        Log.i(TAG, "searchRemote: local miss for '" + key + "', asking Supabase");
+        List<SupabaseApi.AutoEpisode> remote;
+        try {
+            SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
+            remote = api.searchEpisodes(query.trim(), SEARCH_REMOTE_LIMIT);
+        } catch (Exception ex) {
+            // Not cached, so the next search for it tries the network again
+            Log.w(TAG, "searchRemote failed for '" + key + "'", ex);
+            return Collections.emptyList();
+        }
+
+        CatalogDatabase database = catalogDatabase();
+        database.mergeSearchEpisodes(remote);
+        List<CatalogDatabase.SearchHit> hits = database.search(query);
+        if (hits.isEmpty() && !remote.isEmpty()) {
+            // Server-side stemming can match words the prefix index does not
+            hits = new ArrayList<>();
+            for (SupabaseApi.AutoEpisode episode : remote) {
+                hits.add(new CatalogDatabase.SearchHit(false, episode.id, 0, null));
+            }
+        }
+        return cacheSearchResult(key, hits);
+    }
+
+    private List<CatalogDatabase.SearchHit> cacheSearchResult(
+        String key,
+        List<CatalogDatabase.SearchHit> hits
+    ) {
+        hits = Collections.unmodifiableList(hits);
+        searchResults.put(key, hits);
+        Log.i(TAG, "searchCatalog: '" + key + "' -> " + hits.size());
+        return hits;
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ImmutableList<MediaItem> buildSearchItems(List<CatalogDatabase.SearchHit> hits) {
+        CatalogDatabase database = catalogDatabase();
+        Map<String, Download> downloaded = episodeDownloads().getCompletedById();
+        ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
+        for (CatalogDatabase.SearchHit hit : hits) {
+            if (hit.isPlaylist) {
+                SupabaseApi.AutoPlaylist playlist = database.loadPlaylist(hit.id);
+                if (playlist != null) {
+                    items.add(buildSeriesItem(playlist));
+                }
+                continue;
+            }
+            SupabaseApi.AutoEpisode episode = database.loadEpisode(hit.id);
+            if (episode != null) {
+                items.add(
+                    buildEpisodeItem(
+                        episode,
+                        EPISODE_SEARCH_PREFIX + episode.id,
+                        null,
+                        downloaded.get(episode.id)
+                    )
+                );
+            }
+        }
+        return items.build();
+    }
+
+    private static String searchKey(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
     }
 
     private boolean isLoggedIn(MediaLibrarySession session) {
@@ -324,18 +662,15 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         }
 
         AutoAuthConfig config = AutoAuthStore.load(audioService.getApplicationContext());
-        if (config == null || config.accessToken == null || config.accessToken.isEmpty()) {
-            return false;
-        }
-        return !AutoAuthStore.isTokenExpired(config.accessToken);
+        return config.hasAccessToken() && !config.isTokenExpired();
     }
 
     private void logAuthState(String context, MediaLibrarySession session) {
         Bundle extras = session.getSessionExtras();
         boolean extrasLoggedIn = extras != null && extras.getBoolean(EXTRA_IS_LOGGED_IN, false);
         AutoAuthConfig config = AutoAuthStore.load(audioService.getApplicationContext());
-        boolean hasToken = config != null && config.accessToken != null && !config.accessToken.isEmpty();
-        boolean expired = hasToken && AutoAuthStore.isTokenExpired(config.accessToken);
+        boolean hasToken = config.hasAccessToken();
+        boolean expired = hasToken && config.isTokenExpired();
         Log.i(
             TAG,
             context + " extrasLoggedIn=" + extrasLoggedIn + " hasToken=" + hasToken + " expired=" + expired
@@ -356,137 +691,533 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             .build();
     }
 
-    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> fetchSeriesItems(
-        @Nullable LibraryParams params
+    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> serveNode(
+        MediaLibrarySession session,
+        MediaSession.ControllerInfo browser,
+        String parentId,
+        int offset,
+        int limit,
+        long ttlMs,
+        @Nullable LibraryParams params,
+        Callable<ImmutableList<MediaItem>> snapshot,
+        Callable<ImmutableList<MediaItem>> loader
     ) {
-        SettableFuture<LibraryResult<ImmutableList<MediaItem>>> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
-            try {
-                SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                Log.i(TAG, "fetchSeriesItems: requesting series");
-                List<SupabaseApi.AutoPlaylist> playlists = api.fetchSeries(DEFAULT_PAGE_SIZE);
-                Log.i(TAG, "fetchSeriesItems: got " + playlists.size());
-                if (playlists.isEmpty()) {
-                    Log.i(TAG, "fetchSeriesItems: empty series, falling back to public playlists");
-                    playlists = api.fetchPublicPlaylists(DEFAULT_PAGE_SIZE);
-                    Log.i(TAG, "fetchSeriesItems: fallback got " + playlists.size());
+        String pageKey = pageKey(parentId, offset, limit);
+        long generation = catalogStore.generation();
+        CatalogStore.Entry cached = catalogStore.get(pageKey);
+        if (cached == null && offset == 0) {
+            cached = prefetchedPage(parentId, limit);
+        }
+        if (cached != null) {
+            if (cached.isStale(ttlMs)) {
+                refreshInBackground(session, parentId, pageKey, params, loader);
+            }
+            Log.i(TAG, "serveNode: serving stored page " + pageKey);
+            return Futures.immediateFuture(LibraryResult.ofItemList(cached.items, params));
+        }
+
+        return scheduler.submit(
+            LibraryScheduler.Priority.BROWSE,
+            browseTag(browser, parentId),
+            () -> {
+                // Cold start: answer from the on-disk snapshot first and let the network catch up
+                ImmutableList<MediaItem> stored = readSnapshot(pageKey, snapshot);
+                if (!stored.isEmpty()) {
+                    Log.i(TAG, "serveNode: serving snapshot page " + pageKey);
+                    catalogStore.putSnapshot(pageKey, stored, generation);
+                    refreshInBackground(session, parentId, pageKey, params, loader);
+                    return LibraryResult.ofItemList(stored, params);
                 }
-                ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
-                for (SupabaseApi.AutoPlaylist playlist : playlists) {
-                    MediaMetadata.Builder metadata = new MediaMetadata.Builder()
-                        .setTitle(playlist.title)
-                        .setSubtitle(playlist.description)
-                        .setIsBrowsable(true)
-                        .setIsPlayable(false);
 
-                    applyArtwork(metadata, playlist.coverImagePath);
+                try {
+                    ImmutableList<MediaItem> items = loader.call();
+                    catalogStore.put(pageKey, items, generation);
+                    warmArtwork(items);
+                    return LibraryResult.ofItemList(items, params);
+                } catch (Exception ex) {
+                    Log.w(TAG, "serveNode failed for " + pageKey, ex);
+                    return LibraryResult.ofItemList(ImmutableList.of(), params);
+                }
+            }
+        );
+    }
+
+    // Browse work is tagged per browser and node so leaving a node drops what it still waits on
+    private static String browseTag(
+        MediaSession.ControllerInfo browser,
+        @Nullable String parentId
+    ) {
+        return browserTag(browser) + parentId + "#";
+    }
 
-                    items.add(
-                        new MediaItem.Builder()
-                            .setMediaId("series/" + playlist.id)
-                            .setMediaMetadata(metadata.build())
-                            .build()
+    private static String browserTag(MediaSession.ControllerInfo browser) {
+        return browser.getUid() + ":" + browser.getPackageName() + "|";
+    }
+
+    // The prefetch cannot know the browser's page size, so a first page is cut from its larger one
+    @Nullable
+    private CatalogStore.Entry prefetchedPage(String parentId, int limit) {
+        CatalogStore.Entry warm = catalogStore.get(pageKey(parentId, 0, PREFETCH_PAGE_SIZE));
+        if (warm == null) {
+            return null;
+        }
+        if (warm.items.size() >= limit || warm.items.size() < PREFETCH_PAGE_SIZE) {
+            return warm.head(limit);
+        }
+        return null;
+    }
+
+    /**
+     * Loads the root shelves in parallel as soon as a browser connects, then the first page of the
+     * top series and the artwork the first screen of each list will show, all within
+     * {@link #prefetchBudget}. Results land in {@link #catalogStore} under the prefetch page size,
+     * where {@link #serveNode} picks them up.
+     */
+    private void prefetchBrowseTree() {
+        if (!prefetchBudget.isEnabled()) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        long last = lastPrefetchAt.get();
+        // Android Auto connects several controllers at once; one prefetch covers them all
+        if (last != 0 && now - last < PREFETCH_COOLDOWN_MS) {
+            return;
+        }
+        if (!lastPrefetchAt.compareAndSet(last, now)) {
+            return;
+        }
+
+        long deadline = now + prefetchBudget.timeBudgetMs;
+        AtomicInteger artworkLeft = new AtomicInteger(prefetchBudget.artworkCount);
+        Log.i(TAG, "prefetchBrowseTree: warming root shelves");
+
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+            ImmutableList<MediaItem> series = prefetchPage(
+                NODE_SERIES,
+                SERIES_TTL_MS,
+                deadline,
+                () -> loadSeriesItems(PREFETCH_PAGE_SIZE, 0)
+            );
+            int seriesCount = Math.min(prefetchBudget.seriesCount, series.size());
+            for (int i = 0; i < seriesCount; i++) {
+                String parentId = series.get(i).mediaId;
+                String seriesId = parentId.substring("series/".length());
+                scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+                    ImmutableList<MediaItem> episodes = prefetchPage(
+                        parentId,
+                        SERIES_EPISODES_TTL_MS,
+                        deadline,
+                        () -> loadSeriesEpisodes(seriesId, PREFETCH_PAGE_SIZE, 0)
                     );
-                }
-                future.set(LibraryResult.ofItemList(items.build(), params));
-            } catch (Exception ex) {
-                Log.w(TAG, "fetchSeriesItems failed", ex);
-                future.set(LibraryResult.ofItemList(ImmutableList.of(), params));
+                    warmArtwork(episodes, PREFETCH_VISIBLE_ROWS, deadline, artworkLeft);
+                });
             }
+            warmArtwork(series, PREFETCH_VISIBLE_ROWS, deadline, artworkLeft);
+        });
+
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+            ImmutableList<MediaItem> items = prefetchPage(
+                NODE_CONTINUE,
+                CONTINUE_TTL_MS,
+                deadline,
+                () -> loadContinueListening(PREFETCH_PAGE_SIZE, 0)
+            );
+            warmArtwork(items, prefetchBudget.continueItemCount, deadline, artworkLeft);
+        });
+
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+            ImmutableList<MediaItem> items = prefetchPage(
+                NODE_EPISODES,
+                LATEST_EPISODES_TTL_MS,
+                deadline,
+                () -> loadLatestEpisodes(PREFETCH_PAGE_SIZE, 0)
+            );
+            warmArtwork(items, PREFETCH_VISIBLE_ROWS, deadline, artworkLeft);
         });
-        return future;
     }
 
-    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> fetchLatestEpisodes(
-        @Nullable LibraryParams params
+    private ImmutableList<MediaItem> prefetchPage(
+        String parentId,
+        long ttlMs,
+        long deadline,
+        Callable<ImmutableList<MediaItem>> loader
     ) {
-        SettableFuture<LibraryResult<ImmutableList<MediaItem>>> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
-            try {
-                SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                Log.i(TAG, "fetchLatestEpisodes: requesting latest");
-                List<SupabaseApi.AutoEpisode> episodes = api.fetchLatestEpisodes(DEFAULT_PAGE_SIZE);
-                Log.i(TAG, "fetchLatestEpisodes: got " + episodes.size());
-                ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
-                for (SupabaseApi.AutoEpisode episode : episodes) {
-                    items.add(buildEpisodeItem(episode, EPISODE_LATEST_PREFIX + episode.id, null));
-                }
-                future.set(LibraryResult.ofItemList(items.build(), params));
-            } catch (Exception ex) {
-                Log.w(TAG, "fetchLatestEpisodes failed", ex);
-                future.set(LibraryResult.ofItemList(ImmutableList.of(), params));
+        String pageKey = pageKey(parentId, 0, PREFETCH_PAGE_SIZE);
+        long generation = catalogStore.generation();
+        CatalogStore.Entry stored = catalogStore.get(pageKey);
+        if (stored != null && !stored.isStale(ttlMs)) {
+            return stored.items;
+        }
+        if (SystemClock.elapsedRealtime() > deadline || !catalogStore.beginRefresh(pageKey)) {
+            return ImmutableList.of();
+        }
+
+        try {
+            ImmutableList<MediaItem> items = loader.call();
+            catalogStore.put(pageKey, items, generation);
+            return items;
+        } catch (Exception ex) {
+            Log.w(TAG, "prefetchPage failed for " + pageKey, ex);
+            return ImmutableList.of();
+        } finally {
+            catalogStore.endRefresh(pageKey);
+        }
+    }
+
+    /**
+     * Downloads the not yet cached artwork of the first {@code count} items on the background lane,
+     * in parallel, so {@link ArtworkProvider} answers from disk when the host asks for the covers.
+     */
+    private void warmArtwork(
+        ImmutableList<MediaItem> items,
+        int count,
+        long deadline,
+        @Nullable AtomicInteger artworkLeft
+    ) {
+        ArtworkRepository repository = artworkRepository();
+        Set<String> missing = new LinkedHashSet<>();
+        for (int i = 0; i < Math.min(count, items.size()); i++) {
+            String artworkUrl = ArtworkProvider.sourceOf(
+                audioService.getApplicationContext(),
+                items.get(i).mediaMetadata.artworkUri
+            );
+            if (artworkUrl == null || missing.contains(artworkUrl)) {
+                continue;
             }
-        });
-        return future;
+            if (repository.isStored(artworkUrl, ArtworkVariant.AUTO_GRID)) {
+                continue;
+            }
+            if (artworkLeft != null && artworkLeft.getAndDecrement() <= 0) {
+                break;
+            }
+            missing.add(artworkUrl);
+        }
+
+        for (String artworkUrl : missing) {
+            scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+                if (SystemClock.elapsedRealtime() <= deadline) {
+                    repository.getFile(artworkUrl, ArtworkVariant.AUTO_GRID);
+                }
+            });
+        }
     }
 
-    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> fetchSeriesEpisodes(
-        String seriesId,
-        @Nullable LibraryParams params
+    private void warmArtwork(ImmutableList<MediaItem> items) {
+        warmArtwork(items, items.size(), Long.MAX_VALUE, null);
+    }
+
+    private ArtworkRepository artworkRepository() {
+        return ArtworkRepository.get(audioService.getApplicationContext());
+    }
+
+    private ImmutableList<MediaItem> readSnapshot(
+        String pageKey,
+        Callable<ImmutableList<MediaItem>> snapshot
     ) {
-        SettableFuture<LibraryResult<ImmutableList<MediaItem>>> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
+        try {
+            return snapshot.call();
+        } catch (Exception ex) {
+            Log.w(TAG, "readSnapshot failed for " + pageKey, ex);
+            return ImmutableList.of();
+        }
+    }
+
+    private void refreshInBackground(
+        MediaLibrarySession session,
+        String parentId,
+        String pageKey,
+        @Nullable LibraryParams params,
+        Callable<ImmutableList<MediaItem>> loader
+    ) {
+        long generation = catalogStore.generation();
+        if (!catalogStore.beginRefresh(pageKey)) {
+            return;
+        }
+
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
             try {
-                SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                Log.i(TAG, "fetchSeriesEpisodes: " + seriesId);
-                String playlistCover = api.fetchPlaylistCover(seriesId);
-                List<SupabaseApi.AutoEpisode> episodes = api.fetchSeriesEpisodes(seriesId, DEFAULT_PAGE_SIZE);
-                Log.i(TAG, "fetchSeriesEpisodes: got " + episodes.size());
-                ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
-                for (SupabaseApi.AutoEpisode episode : episodes) {
-                    items.add(
-                        buildEpisodeItem(
-                            episode,
-                            EPISODE_SERIES_PREFIX + seriesId + "/" + episode.id,
-                            playlistCover
-                        )
+                ImmutableList<MediaItem> items = loader.call();
+                // A refresh that outlived a login change must not bring the old account's page back
+                if (catalogStore.put(pageKey, items, generation)) {
+                    Log.i(TAG, "refreshInBackground: " + pageKey + " changed, notifying");
+                    // The page is one slice of the node; the browser refetches what it shows
+                    mainHandler.post(() ->
+                        session.notifyChildrenChanged(parentId, Integer.MAX_VALUE, params)
                     );
                 }
-                future.set(LibraryResult.ofItemList(items.build(), params));
+                warmArtwork(items);
             } catch (Exception ex) {
-                Log.w(TAG, "fetchSeriesEpisodes failed", ex);
-                future.set(LibraryResult.ofItemList(ImmutableList.of(), params));
+                Log.w(TAG, "refreshInBackground failed for " + pageKey, ex);
+            } finally {
+                catalogStore.endRefresh(pageKey);
             }
         });
-        return future;
     }
 
-    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> fetchContinueListening(
+    private ImmutableList<MediaItem> loadSeriesItems(int limit, int offset) throws Exception {
+        SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
+        List<SupabaseApi.AutoPlaylist> playlists = ImmutableList.of();
+        // The snapshot already knows when there are no series, so skip the empty round trip.
+        // Decided again on every first page, so a series that syncs in later ends the fallback
+        if (offset == 0) {
+            boolean onlyNonSeries = catalogDatabase().hasOnlyNonSeriesPlaylists();
+            if (onlyNonSeries && !seriesFallbackToPublic) {
+                Log.i(TAG, "loadSeriesItems: no series in catalog, using public playlists");
+            } else if (!onlyNonSeries && seriesFallbackToPublic) {
+                Log.i(TAG, "loadSeriesItems: catalog may have series, trying them again");
+            }
+            seriesFallbackToPublic = onlyNonSeries;
+        }
+        if (!seriesFallbackToPublic) {
+            Log.i(TAG, "loadSeriesItems: requesting series offset=" + offset);
+            playlists = api.fetchSeries(limit, offset);
+            Log.i(TAG, "loadSeriesItems: got " + playlists.size());
+            if (playlists.isEmpty() && offset == 0) {
+                Log.i(TAG, "loadSeriesItems: empty series, falling back to public playlists");
+                seriesFallbackToPublic = true;
+            }
+        }
+        if (seriesFallbackToPublic) {
+            playlists = api.fetchPublicPlaylists(limit, offset);
+            Log.i(TAG, "loadSeriesItems: fallback got " + playlists.size());
+        }
+
+        List<SupabaseApi.AutoPlaylist> loaded = playlists;
+        saveSnapshot("series", () ->
+            catalogDatabase().replacePlaylists(NODE_SERIES, limit, offset, loaded)
+        );
+        return buildSeriesItems(loaded);
+    }
+
+    private ImmutableList<MediaItem> snapshotSeriesItems(int limit, int offset) {
+        return buildSeriesItems(catalogDatabase().loadPlaylists(NODE_SERIES, limit, offset));
+    }
+
+    private ImmutableList<MediaItem> buildSeriesItems(List<SupabaseApi.AutoPlaylist> playlists) {
+        ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
+        for (SupabaseApi.AutoPlaylist playlist : playlists) {
+            items.add(buildSeriesItem(playlist));
+        }
+        return items.build();
+    }
+
+    private MediaItem buildSeriesItem(SupabaseApi.AutoPlaylist playlist) {
+        MediaMetadata.Builder metadata = new MediaMetadata.Builder()
+            .setTitle(playlist.title)
+            .setSubtitle(playlist.description)
+            .setIsBrowsable(true)
+            .setIsPlayable(false);
+
+        applyArtwork(metadata, playlist.coverImagePath);
+
+        return new MediaItem.Builder()
+            .setMediaId("series/" + playlist.id)
+            .setMediaMetadata(metadata.build())
+            .build();
+    }
+
+    private ImmutableList<MediaItem> loadLatestEpisodes(int limit, int offset) throws Exception {
+        SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
+        Log.i(TAG, "loadLatestEpisodes: requesting latest offset=" + offset);
+        List<SupabaseApi.AutoEpisode> episodes = api.fetchLatestEpisodes(limit, offset);
+        Log.i(TAG, "loadLatestEpisodes: got " + episodes.size());
+        saveSnapshot("latest", () ->
+            catalogDatabase().replaceEpisodes(NODE_EPISODES, limit, offset, episodes)
+        );
+        return buildLatestItems(episodes);
+    }
+
+    private ImmutableList<MediaItem> snapshotLatestEpisodes(int limit, int offset) {
+        return buildLatestItems(catalogDatabase().loadEpisodes(NODE_EPISODES, limit, offset));
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ImmutableList<MediaItem> buildLatestItems(List<SupabaseApi.AutoEpisode> episodes) {
+        Map<String, Download> downloaded = episodeDownloads().getCompletedById();
+        ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
+        for (SupabaseApi.AutoEpisode episode : episodes) {
+            items.add(
+                buildEpisodeItem(
+                    episode,
+                    EPISODE_LATEST_PREFIX + episode.id,
+                    null,
+                    downloaded.get(episode.id)
+                )
+            );
+        }
+        return items.build();
+    }
+
+    private ImmutableList<MediaItem> loadSeriesEpisodes(String seriesId, int limit, int offset)
+        throws Exception {
+        SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
+        Log.i(TAG, "loadSeriesEpisodes: " + seriesId + " offset=" + offset);
+        SupabaseApi.AutoSeriesPage seriesPage = api.fetchSeriesPage(seriesId, limit, offset);
+        String playlistCover = seriesPage.playlist != null
+            ? seriesPage.playlist.coverImagePath
+            : null;
+        List<SupabaseApi.AutoEpisode> episodes = seriesPage.episodes;
+        Log.i(TAG, "loadSeriesEpisodes: got " + episodes.size());
+        saveSnapshot("series " + seriesId, () -> {
+            CatalogDatabase database = catalogDatabase();
+            if (seriesPage.playlist != null) {
+                database.savePlaylist(seriesPage.playlist);
+            }
+            database.replacePlaylistItems(seriesId, limit, offset, episodes);
+        });
+        return buildSeriesEpisodeItems(seriesId, playlistCover, episodes);
+    }
+
+    private ImmutableList<MediaItem> snapshotSeriesEpisodes(
+        String seriesId,
+        int limit,
+        int offset
+    ) {
+        CatalogDatabase database = catalogDatabase();
+        SupabaseApi.AutoPlaylist playlist = database.loadPlaylist(seriesId);
+        return buildSeriesEpisodeItems(
+            seriesId,
+            playlist != null ? playlist.coverImagePath : null,
+            database.loadPlaylistItems(seriesId, limit, offset)
+        );
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ImmutableList<MediaItem> buildSeriesEpisodeItems(
+        String seriesId,
+        @Nullable String playlistCover,
+        List<SupabaseApi.AutoEpisode> episodes
+    ) {
+        Map<String, Download> downloaded = episodeDownloads().getCompletedById();
+        ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
+        for (SupabaseApi.AutoEpisode episode : episodes) {
+            items.add(
+                buildEpisodeItem(
+                    episode,
+                    EPISODE_SERIES_PREFIX + seriesId + "/" + episode.id,
+                    playlistCover,
+                    downloaded.get(episode.id)
+                )
+            );
+        }
+        return items.build();
+    }
+
+    private ImmutableList<MediaItem> loadContinueListening(int limit, int offset) throws Exception {
+        SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
+        Log.i(TAG, "loadContinueListening: requesting progress offset=" + offset);
+        List<SupabaseApi.AutoContinueItem> items = api.fetchContinueListening(limit, offset);
+        Log.i(TAG, "loadContinueListening: got " + items.size());
+        saveSnapshot("continue", () ->
+            catalogDatabase().replaceContinueItems(continueShelf(), limit, offset, items)
+        );
+        return buildContinueItems(items);
+    }
+
+    private ImmutableList<MediaItem> snapshotContinueListening(int limit, int offset) {
+        return buildContinueItems(
+            catalogDatabase().loadContinueItems(continueShelf(), limit, offset)
+        );
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ImmutableList<MediaItem> buildContinueItems(List<SupabaseApi.AutoContinueItem> items) {
+        Map<String, Download> downloaded = episodeDownloads().getCompletedById();
+        ImmutableList.Builder<MediaItem> result = ImmutableList.builder();
+        for (SupabaseApi.AutoContinueItem item : items) {
+            if (item.episode == null) {
+                continue;
+            }
+            result.add(
+                buildEpisodeItem(
+                    item.episode,
+                    EPISODE_CONTINUE_PREFIX + item.episode.id,
+                    null,
+                    downloaded.get(item.episode.id)
+                )
+            );
+        }
+        return result.build();
+    }
+
+    private String continueShelf() {
+        return continueShelf(AutoAuthStore.load(audioService.getApplicationContext()));
+    }
+
+    // Progress is per user, so each account keeps its own continue-listening list
+    static String continueShelf(AutoAuthConfig config) {
+        return NODE_CONTINUE + "/" + (config.userId != null ? config.userId : "anon");
+    }
+
+    // Offline, a tapped row queues from the same snapshot rows its browse page was served from
+    private static <T> T fetchOrSnapshot(String what, Callable<T> fetch, Callable<T> snapshot)
+        throws Exception {
+        try {
+            return fetch.call();
+        } catch (Exception ex) {
+            Log.w(TAG, what + ": fetch failed, queueing from the snapshot", ex);
+            return snapshot.call();
+        }
+    }
+
+    // A failed disk write only costs the next cold start, never the current browse
+    private void saveSnapshot(String what, Runnable write) {
+        try {
+            write.run();
+        } catch (Exception ex) {
+            Log.w(TAG, "saveSnapshot failed for " + what, ex);
+        }
+    }
+
+    private CatalogDatabase catalogDatabase() {
+        return CatalogDatabase.get(audioService.getApplicationContext());
+    }
+
+    private EpisodeDownloads episodeDownloads() {
+        return EpisodeDownloads.get(audioService.getApplicationContext());
+    }
+
+    // Downloads are listed from the local download index only, so this node works offline
+    @OptIn(markerClass = UnstableApi.class)
+    private ListenableFuture<LibraryResult<ImmutableList<MediaItem>>> serveDownloads(
+        int limit,
+        int offset,
         @Nullable LibraryParams params
     ) {
         SettableFuture<LibraryResult<ImmutableList<MediaItem>>> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
+        searchExecutor.execute(() -> {
             try {
-                SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                Log.i(TAG, "fetchContinueListening: requesting progress");
-                List<SupabaseApi.AutoContinueItem> items = api.fetchContinueListening(DEFAULT_PAGE_SIZE);
-                Log.i(TAG, "fetchContinueListening: got " + items.size());
-                ImmutableList.Builder<MediaItem> result = ImmutableList.builder();
-                for (SupabaseApi.AutoContinueItem item : items) {
-                    if (item.episode == null) {
-                        continue;
-                    }
-                    result.add(
-                        buildEpisodeItem(
-                            item.episode,
-                            EPISODE_CONTINUE_PREFIX + item.episode.id,
-                            null
-                        )
-                    );
-                }
-                future.set(LibraryResult.ofItemList(result.build(), params));
+                List<Download> downloads = episodeDownloads().getCompletedDownloads();
+                int from = Math.min(offset, downloads.size());
+                int to = Math.min(from + limit, downloads.size());
+                ImmutableList<MediaItem> items = buildDownloadedItems(downloads.subList(from, to));
+                future.set(LibraryResult.ofItemList(items, params));
             } catch (Exception ex) {
-                Log.w(TAG, "fetchContinueListening failed", ex);
+                Log.w(TAG, "serveDownloads failed", ex);
                 future.set(LibraryResult.ofItemList(ImmutableList.of(), params));
             }
         });
         return future;
     }
 
+    @OptIn(markerClass = UnstableApi.class)
+    private ImmutableList<MediaItem> buildDownloadedItems(List<Download> downloads) {
+        ImmutableList.Builder<MediaItem> items = ImmutableList.builder();
+        for (Download download : downloads) {
+            SupabaseApi.AutoEpisode episode = EpisodeDownloads.episodeOf(download);
+            items.add(
+                buildEpisodeItem(episode, EPISODE_DOWNLOADED_PREFIX + episode.id, null, download)
+            );
+        }
+        return items.build();
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
     private MediaItem buildEpisodeItem(
         SupabaseApi.AutoEpisode episode,
         String mediaId,
-        @Nullable String fallbackArtwork
+        @Nullable String fallbackArtwork,
+        @Nullable Download download
     ) {
         MediaMetadata.Builder metadata = new MediaMetadata.Builder()
             .setTitle(episode.title)
@@ -505,12 +1236,23 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                 : episode.podcastImageUrl);
         applyArtwork(metadata, artwork);
 
+        // A downloaded copy plays from disk under the episode key even if the catalog URL is gone
+        String audioUrl = episode.audioUrl;
+        if (download != null) {
+            audioUrl = download.request.uri.toString();
+            Bundle extras = new Bundle();
+            extras.putLong(EXTRA_DOWNLOAD_STATUS, STATUS_DOWNLOADED);
+            metadata.setExtras(extras);
+        }
+
         MediaItem.Builder itemBuilder = new MediaItem.Builder()
             .setMediaId(mediaId)
             .setMediaMetadata(metadata.build());
 
-        if (episode.audioUrl != null && !episode.audioUrl.isEmpty()) {
-            itemBuilder.setUri(Uri.parse(episode.audioUrl));
+        if (audioUrl != null && !audioUrl.isEmpty()) {
+            itemBuilder
+                .setUri(Uri.parse(audioUrl))
+                .setCustomCacheKey(MediaCache.episodeKey(episode.id));
         }
 
         return itemBuilder.build();
@@ -547,22 +1289,29 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
             );
         }
 
-        return current.buildUpon()
+        MediaItem nowPlaying = current.buildUpon()
             .setMediaId(MEDIA_ID_NOW_PLAYING)
             .setMediaMetadata(metadata.build())
             .build();
+        return withArtworkVariant(nowPlaying, ArtworkVariant.AUTO_GRID);
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     private ListenableFuture<MediaItemsWithStartPosition> buildQueueFromLatest(
         List<MediaItem> fallbackItems,
         String episodeId,
         long startPositionMs
     ) {
         SettableFuture<MediaItemsWithStartPosition> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
+        scheduler.execute(LibraryScheduler.Priority.PLAYBACK, () -> {
             try {
                 SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                List<SupabaseApi.AutoEpisode> episodes = api.fetchLatestEpisodes(DEFAULT_PAGE_SIZE);
+                List<SupabaseApi.AutoEpisode> episodes = fetchOrSnapshot(
+                    "buildQueueFromLatest",
+                    () -> api.fetchLatestEpisodes(DEFAULT_PAGE_SIZE, 0),
+                    () -> catalogDatabase().loadEpisodes(NODE_EPISODES, DEFAULT_PAGE_SIZE, 0)
+                );
+                Map<String, Download> downloaded = episodeDownloads().getCompletedById();
                 List<MediaItem> items = new ArrayList<>();
                 int startAt = 0;
                 for (int i = 0; i < episodes.size(); i++) {
@@ -571,13 +1320,18 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                         buildEpisodeItem(
                             episode,
                             EPISODE_LATEST_PREFIX + episode.id,
-                            null
+                            null,
+                            downloaded.get(episode.id)
                         )
                     );
                     if (episode.id.equals(episodeId)) {
                         startAt = i;
                     }
                 }
+                if (items.isEmpty()) {
+                    future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+                    return;
+                }
                 audioService.updatePlaylistState(items.size() > 1);
                 future.set(new MediaItemsWithStartPosition(items, startAt, startPositionMs));
             } catch (Exception ex) {
@@ -588,6 +1342,7 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         return future;
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     private ListenableFuture<MediaItemsWithStartPosition> buildQueueFromSeries(
         List<MediaItem> fallbackItems,
         String playlistId,
@@ -595,11 +1350,25 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         long startPositionMs
     ) {
         SettableFuture<MediaItemsWithStartPosition> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
+        scheduler.execute(LibraryScheduler.Priority.PLAYBACK, () -> {
             try {
                 SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                String playlistCover = api.fetchPlaylistCover(playlistId);
-                List<SupabaseApi.AutoEpisode> episodes = api.fetchSeriesEpisodes(playlistId, DEFAULT_PAGE_SIZE);
+                SupabaseApi.AutoSeriesPage seriesPage = fetchOrSnapshot(
+                    "buildQueueFromSeries",
+                    () -> api.fetchSeriesPage(playlistId, DEFAULT_PAGE_SIZE, 0),
+                    () -> {
+                        CatalogDatabase database = catalogDatabase();
+                        return new SupabaseApi.AutoSeriesPage(
+                            database.loadPlaylist(playlistId),
+                            database.loadPlaylistItems(playlistId, DEFAULT_PAGE_SIZE, 0)
+                        );
+                    }
+                );
+                String playlistCover = seriesPage.playlist != null
+                    ? seriesPage.playlist.coverImagePath
+                    : null;
+                List<SupabaseApi.AutoEpisode> episodes = seriesPage.episodes;
+                Map<String, Download> downloaded = episodeDownloads().getCompletedById();
                 List<MediaItem> items = new ArrayList<>();
                 int startAt = 0;
                 for (int i = 0; i < episodes.size(); i++) {
@@ -608,13 +1377,18 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                         buildEpisodeItem(
                             episode,
                             EPISODE_SERIES_PREFIX + playlistId + "/" + episode.id,
-                            playlistCover
+                            playlistCover,
+                            downloaded.get(episode.id)
                         )
                     );
                     if (episode.id.equals(episodeId)) {
                         startAt = i;
                     }
                 }
+                if (items.isEmpty()) {
+                    future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+                    return;
+                }
                 audioService.updatePlaylistState(items.size() > 1);
                 future.set(new MediaItemsWithStartPosition(items, startAt, startPositionMs));
             } catch (Exception ex) {
@@ -625,15 +1399,21 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         return future;
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     private ListenableFuture<MediaItemsWithStartPosition> buildQueueFromContinue(
         List<MediaItem> fallbackItems,
         String episodeId
     ) {
         SettableFuture<MediaItemsWithStartPosition> future = SettableFuture.create();
-        libraryExecutor.execute(() -> {
+        scheduler.execute(LibraryScheduler.Priority.PLAYBACK, () -> {
             try {
                 SupabaseApi api = new SupabaseApi(audioService.getApplicationContext());
-                List<SupabaseApi.AutoContinueItem> progressItems = api.fetchContinueListening(DEFAULT_PAGE_SIZE);
+                List<SupabaseApi.AutoContinueItem> progressItems = fetchOrSnapshot(
+                    "buildQueueFromContinue",
+                    () -> api.fetchContinueListening(DEFAULT_PAGE_SIZE, 0),
+                    () -> catalogDatabase().loadContinueItems(continueShelf(), DEFAULT_PAGE_SIZE, 0)
+                );
+                Map<String, Download> downloaded = episodeDownloads().getCompletedById();
                 List<MediaItem> items = new ArrayList<>();
                 int startAt = 0;
                 long resumePositionMs = C.TIME_UNSET;
@@ -646,7 +1426,8 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                         buildEpisodeItem(
                             progressItem.episode,
                             EPISODE_CONTINUE_PREFIX + progressItem.episode.id,
-                            null
+                            null,
+                            downloaded.get(progressItem.episode.id)
                         )
                     );
                     if (progressItem.episode.id.equals(episodeId)) {
@@ -654,6 +1435,10 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
                         resumePositionMs = Math.max(0, progressItem.progressMs);
                     }
                 }
+                if (items.isEmpty()) {
+                    future.set(new MediaItemsWithStartPosition(fallbackItems, 0, C.TIME_UNSET));
+                    return;
+                }
                 audioService.updatePlaylistState(items.size() > 1);
                 long startPos = resumePositionMs == C.TIME_UNSET ? 0 : resumePositionMs;
                 future.set(new MediaItemsWithStartPosition(items, startAt, startPos));
@@ -665,6 +1450,145 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         return future;
     }
 
+    @OptIn(markerClass = UnstableApi.class)
+    private ListenableFuture<MediaItemsWithStartPosition> buildQueueFromSearch(
+        List<MediaItem> fallbackItems,
+        String episodeId,
+        long startPositionMs
+    ) {
+        SettableFuture<MediaItemsWithStartPosition> future = SettableFuture.create();
+        searchExecutor.execute(() -> {
+            try {
+                SupabaseApi.AutoEpisode episode = catalogDatabase().loadEpisode(episodeId);
+                if (episode == null) {
+                    future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+                    return;
+                }
+                audioService.updatePlaylistState(false);
+                future.set(
+                    new MediaItemsWithStartPosition(
+                        ImmutableList.of(
+                            buildEpisodeItem(
+                                episode,
+                                EPISODE_SEARCH_PREFIX + episodeId,
+                                null,
+                                episodeDownloads().getCompletedById().get(episodeId)
+                            )
+                        ),
+                        0,
+                        startPositionMs
+                    )
+                );
+            } catch (Exception ex) {
+                Log.w(TAG, "buildQueueFromSearch failed", ex);
+                future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+            }
+        });
+        return future;
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    private ListenableFuture<MediaItemsWithStartPosition> buildQueueFromDownloads(
+        List<MediaItem> fallbackItems,
+        String episodeId,
+        long startPositionMs
+    ) {
+        SettableFuture<MediaItemsWithStartPosition> future = SettableFuture.create();
+        searchExecutor.execute(() -> {
+            try {
+                List<Download> downloads = episodeDownloads().getCompletedDownloads();
+                int startAt = 0;
+                for (int i = 0; i < downloads.size(); i++) {
+                    if (downloads.get(i).request.id.equals(episodeId)) {
+                        startAt = i;
+                    }
+                }
+                ImmutableList<MediaItem> items = buildDownloadedItems(downloads);
+                if (items.isEmpty()) {
+                    future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+                    return;
+                }
+                audioService.updatePlaylistState(items.size() > 1);
+                future.set(new MediaItemsWithStartPosition(items, startAt, startPositionMs));
+            } catch (Exception ex) {
+                Log.w(TAG, "buildQueueFromDownloads failed", ex);
+                future.set(new MediaItemsWithStartPosition(fallbackItems, 0, startPositionMs));
+            }
+        });
+        return future;
+    }
+
+    // Queued items show on the lock screen and in the notification, not in a browse grid
+    @OptIn(markerClass = UnstableApi.class)
+    private MediaItemsWithStartPosition withPlaybackArtwork(MediaItemsWithStartPosition queue) {
+        if (queue.mediaItems == null) {
+            return queue;
+        }
+        List<MediaItem> items = new ArrayList<>(queue.mediaItems.size());
+        for (MediaItem item : queue.mediaItems) {
+            items.add(withArtworkVariant(item, ArtworkVariant.LOCK_SCREEN));
+        }
+        return new MediaItemsWithStartPosition(items, queue.startIndex, queue.startPositionMs);
+    }
+
+    private MediaItem withArtworkVariant(MediaItem item, ArtworkVariant variant) {
+        Uri artworkUri = item.mediaMetadata.artworkUri;
+        Uri variantUri = ArtworkProvider.withVariant(
+            audioService.getApplicationContext(),
+            artworkUri,
+            variant
+        );
+        if (variantUri == null || variantUri.equals(artworkUri)) {
+            return item;
+        }
+        return item.buildUpon()
+            .setMediaMetadata(item.mediaMetadata.buildUpon().setArtworkUri(variantUri).build())
+            .build();
+    }
+
+    // Keyed by rows rather than page number, since browsers page with different sizes
+    private static String pageKey(String parentId, int offset, int limit) {
+        return parentId + "#" + offset + "+" + limit;
+    }
+
+    // Plays from the page the item was tapped on, so later pages queue without refetching page 0
+    @Nullable
+    private MediaItemsWithStartPosition queueFromCachedPage(String mediaId, long startPositionMs) {
+        if (mediaId.startsWith(EPISODE_CONTINUE_PREFIX)) {
+            // Continue listening needs the stored progress for the start position
+            return null;
+        }
+
+        for (Map.Entry<String, CatalogStore.Entry> page : catalogStore.pages().entrySet()) {
+            // A page past its TTL may list episodes that were pulled or reordered since
+            if (page.getValue().isStale(ttlForPage(page.getKey()))) {
+                continue;
+            }
+            ImmutableList<MediaItem> items = page.getValue().items;
+            for (int i = 0; i < items.size(); i++) {
+                if (mediaId.equals(items.get(i).mediaId)) {
+                    audioService.updatePlaylistState(items.size() > 1);
+                    return new MediaItemsWithStartPosition(items, i, startPositionMs);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long ttlForPage(String pageKey) {
+        if (pageKey.startsWith(NODE_SERIES + "#")) {
+            return SERIES_TTL_MS;
+        }
+        if (pageKey.startsWith("series/")) {
+            return SERIES_EPISODES_TTL_MS;
+        }
+        if (pageKey.startsWith(NODE_CONTINUE + "#")) {
+            return CONTINUE_TTL_MS;
+        }
+        // Latest episodes and search results
+        return LATEST_EPISODES_TTL_MS;
+    }
+
     private String normalizeArtworkUrl(String artworkUrl) {
         if (artworkUrl == null) {
             return null;
@@ -699,141 +1623,44 @@ public class MediaSessionCallback implements MediaLibrarySession.Callback {
         return base + "/storage/v1/object/public/" + pathValue;
     }
 
+    // Remote covers go through ArtworkProvider, so items carry a URI and never the image bytes.
+    // Items are built for the browse grid; withPlaybackArtwork resizes them once they are queued.
     private void applyArtwork(MediaMetadata.Builder metadata, String artworkUrl) {
         String resolvedUrl = normalizeArtworkUrl(artworkUrl);
         if (resolvedUrl == null || resolvedUrl.isEmpty()) {
             return;
         }
 
-        metadata.setArtworkUri(Uri.parse(resolvedUrl));
-        byte[] artworkData = getArtworkData(resolvedUrl);
-        if (artworkData != null) {
-            metadata.maybeSetArtworkData(artworkData, MediaMetadata.PICTURE_TYPE_FRONT_COVER);
+        if (resolvedUrl.startsWith("http://") || resolvedUrl.startsWith("https://")) {
+            metadata.setArtworkUri(
+                ArtworkProvider.uriFor(
+                    audioService.getApplicationContext(),
+                    resolvedUrl,
+                    ArtworkVariant.AUTO_GRID
+                )
+            );
+        } else {
+            metadata.setArtworkUri(Uri.parse(resolvedUrl));
         }
     }
 
-    private byte[] getArtworkData(String artworkUrl) {
-        if (artworkUrl == null || artworkUrl.isEmpty()) {
-            return null;
-        }
-
-        byte[] cached = artworkCache.get(artworkUrl);
-        if (cached != null) {
-            return cached;
-        }
-
-        byte[] downloaded = downloadArtworkBytes(artworkUrl);
-        if (downloaded != null) {
-            artworkCache.put(artworkUrl, downloaded);
-        }
-        return downloaded;
+    void release() {
+        scheduler.shutdown();
+        searchExecutor.shutdownNow();
     }
 
-    private byte[] compressArtwork(byte[] rawBytes) {
-        if (rawBytes == null || rawBytes.length == 0) {
-            return null;
-        }
-
-        Bitmap bitmap = BitmapFactory.decodeByteArray(rawBytes, 0, rawBytes.length);
-        if (bitmap == null) {
-            Log.w(TAG, "compressArtwork: decode failed");
-            return null;
-        }
-
-        int width = bitmap.getWidth();
-        int height = bitmap.getHeight();
-        int maxDim = Math.max(width, height);
-        Bitmap working = bitmap;
-        if (maxDim > ARTWORK_MAX_DIM_PX) {
-            float scale = (float) ARTWORK_MAX_DIM_PX / (float) maxDim;
-            int targetW = Math.max(1, Math.round(width * scale));
-            int targetH = Math.max(1, Math.round(height * scale));
-            Bitmap scaled = Bitmap.createScaledBitmap(bitmap, targetW, targetH, true);
-            if (scaled != bitmap) {
-                bitmap.recycle();
-            }
-            working = scaled;
-        }
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Bitmap.CompressFormat format = working.hasAlpha()
-            ? Bitmap.CompressFormat.PNG
-            : Bitmap.CompressFormat.JPEG;
-        int quality = format == Bitmap.CompressFormat.JPEG ? ARTWORK_COMPRESS_QUALITY : 100;
-        boolean ok = working.compress(format, quality, outputStream);
-        working.recycle();
-        if (!ok) {
-            Log.w(TAG, "compressArtwork: compress failed");
-            return null;
-        }
-
-        byte[] result = outputStream.toByteArray();
-        if (result.length > ARTWORK_MAX_BYTES) {
-            Log.w(TAG, "compressArtwork: result too large " + result.length);
-            return null;
-        }
-        return result;
+    // Synced rows can answer queries that missed before, or drop rows a cached result lists
+    void onCatalogSynced() {
+        searchResults.evictAll();
     }
 
-    private byte[] downloadArtworkBytes(String artworkUrl) {
-        if (artworkUrl == null || artworkUrl.isEmpty()) {
-            return null;
-        }
-        if (!artworkUrl.startsWith("http://") && !artworkUrl.startsWith("https://")) {
-            return null;
-        }
-
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(artworkUrl);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setConnectTimeout(7000);
-            connection.setReadTimeout(7000);
-            connection.setInstanceFollowRedirects(true);
-            connection.setRequestProperty("Accept", "image/*");
-
-            int response = connection.getResponseCode();
-            if (response < 200 || response >= 300) {
-                Log.w(TAG, "downloadArtworkBytes http " + response + " for " + artworkUrl);
-                return null;
-            }
-
-            int contentLength = connection.getContentLength();
-            if (contentLength > ARTWORK_MAX_BYTES && contentLength > 0) {
-                Log.w(TAG, "downloadArtworkBytes too large " + contentLength + " for " + artworkUrl);
-                return null;
-            }
-
-            int bufferLength = 8 * 1024;
-            byte[] buffer = new byte[bufferLength];
-            int readLength;
-            int totalRead = 0;
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            InputStream inputStream = connection.getInputStream();
-
-            while ((readLength = inputStream.read(buffer, 0, bufferLength)) != -1) {
-                totalRead += readLength;
-                if (totalRead > ARTWORK_MAX_BYTES) {
-                    inputStream.close();
-                    Log.w(TAG, "downloadArtworkBytes exceeded limit for " + artworkUrl);
-                    return null;
-                }
-                outputStream.write(buffer, 0, readLength);
-            }
-
-            inputStream.close();
-            byte[] rawBytes = outputStream.toByteArray();
-            byte[] compressed = compressArtwork(rawBytes);
-            return compressed != null ? compressed : rawBytes;
-        } catch (Exception ex) {
-            Log.w(TAG, "downloadArtworkBytes failed: " + artworkUrl, ex);
-            return null;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
-        }
+    void onAuthConfigChanged() {
+        catalogStore.clear();
+        searchResults.evictAll();
+        seriesFallbackToPublic = false;
+        lastPrefetchAt.set(0);
     }
+
     private void updateSessionExtras(MediaSession session, Bundle extras) {
         Bundle current = session.getSessionExtras();
         Bundle merged = new Bundle(current != null ? current : Bundle.EMPTY);
@@ -0,0 +1,57 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.os.Bundle;
+import androidx.annotation.Nullable;
+
+/**
+ * Limits on the speculative work done when a browser connects. Apps can override each limit with
+ * a {@code <meta-data>} entry on the {@link AudioPlayerService} declaration; a value of 0 turns
+ * that part of the prefetch off.
+ */
+public class PrefetchBudget {
+
+    static final String META_SERIES = "us.mediagrid.capacitorjs.nativeaudio.prefetch.series";
+    static final String META_CONTINUE =
+        "us.mediagrid.capacitorjs.nativeaudio.prefetch.continueItems";
+    static final String META_ARTWORK = "us.mediagrid.capacitorjs.nativeaudio.prefetch.artwork";
+    static final String META_TIME_MS = "us.mediagrid.capacitorjs.nativeaudio.prefetch.timeMs";
+
+    public static final PrefetchBudget DEFAULT = new PrefetchBudget(3, 5, 24, 15000);
+
+    /** Series, from the top of the series shelf, whose first page of episodes is fetched. */
+    public final int seriesCount;
+    /** Continue-listening items, from the top, whose artwork is fetched. */
+    public final int continueItemCount;
+    /** Artwork downloads across the whole prefetch. */
+    public final int artworkCount;
+    /** Wall-clock time after which no further prefetch work is started. */
+    public final long timeBudgetMs;
+
+    public PrefetchBudget(
+        int seriesCount,
+        int continueItemCount,
+        int artworkCount,
+        long timeBudgetMs
+    ) {
+        this.seriesCount = Math.max(0, seriesCount);
+        this.continueItemCount = Math.max(0, continueItemCount);
+        this.artworkCount = Math.max(0, artworkCount);
+        this.timeBudgetMs = Math.max(0, timeBudgetMs);
+    }
+
+    public boolean isEnabled() {
+        return timeBudgetMs > 0;
+    }
+
+    static PrefetchBudget fromMetaData(@Nullable Bundle metaData) {
+        if (metaData == null) {
+            return DEFAULT;
+        }
+        return new PrefetchBudget(
+            metaData.getInt(META_SERIES, DEFAULT.seriesCount),
+            metaData.getInt(META_CONTINUE, DEFAULT.continueItemCount),
+            metaData.getInt(META_ARTWORK, DEFAULT.artworkCount),
+            metaData.getInt(META_TIME_MS, (int) DEFAULT.timeBudgetMs)
+        );
+    }
+}
@@ -0,0 +1,203 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Warms the next queue items while the current one plays. The first {@link #PRELOAD_BYTES} of
+ * each of the next {@link #PRELOAD_ITEMS} items are written into {@link MediaCache}, one item at a
+ * time, so a transition opens from disk instead of waiting on a new connection. Preloading starts
+ * only once the current item is playing, so it never competes with the start of playback.
+ *
+ * <p>When the queue changes, preloads for items that left it are cancelled and the data they
+ * wrote is removed. Runs on the player's thread; downloads run on a single background thread.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public class QueuePreloader implements Player.Listener {
+
+    private static final String TAG = "QueuePreloader";
+    private static final int PRELOAD_ITEMS = 2;
+    private static final long PRELOAD_BYTES = 1024 * 1024;
+    private static final int COPY_BUFFER_BYTES = 32 * 1024;
+
+    private final Player player;
+    private final MediaCache mediaCache;
+    private final EpisodeDownloads episodeDownloads;
+    private final CacheDataSource.Factory dataSourceFactory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Map<String, Preload> preloads = new HashMap<>();
+
+    public QueuePreloader(Context context, Player player) {
+        Context appContext = context.getApplicationContext();
+        this.player = player;
+        this.mediaCache = MediaCache.get(appContext);
+        this.episodeDownloads = EpisodeDownloads.get(appContext);
+        this.dataSourceFactory = mediaCache.dataSourceFactory(
+            new OkHttpDataSource.Factory(SharedHttpClient.get(appContext))
+        );
+    }
+
+    @Override
+    public void onTimelineChanged(Timeline timeline, int reason) {
+        update();
+    }
+
+    @Override
+    public void onMediaItemTransition(@Nullable MediaItem mediaItem, int reason) {
+        update();
+    }
+
+    @Override
+    public void onIsPlayingChanged(boolean isPlaying) {
+        if (isPlaying) {
+            update();
+        }
+    }
+
+    public void release() {
+        for (Preload preload : preloads.values()) {
+            preload.cancel();
+        }
+        preloads.clear();
+        executor.shutdownNow();
+    }
+
+    private void update() {
+        Map<String, MediaItem> next = new LinkedHashMap<>();
+        Set<String> queued = new HashSet<>();
+        int current = player.getCurrentMediaItemIndex();
+        for (int i = 0; i < player.getMediaItemCount(); i++) {
+            MediaItem item = player.getMediaItemAt(i);
+            String key = cacheKey(item);
+            if (key == null) {
+                continue;
+            }
+            queued.add(key);
+            if (i > current && i <= current + PRELOAD_ITEMS) {
+                next.put(key, item);
+            }
+        }
+
+        Iterator<Map.Entry<String, Preload>> iterator = preloads.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Preload> entry = iterator.next();
+            if (next.containsKey(entry.getKey())) {
+                continue;
+            }
+            Preload preload = entry.getValue();
+            preload.cancel();
+            // An item still in the queue is playing or was played; its bytes are playback data now
+            if (!queued.contains(entry.getKey()) && preload.createdEntry) {
+                executor.execute(() -> mediaCache.remove(preload.key));
+            }
+            iterator.remove();
+        }
+
+        if (!player.isPlaying()) {
+            return;
+        }
+        for (Map.Entry<String, MediaItem> entry : next.entrySet()) {
+            if (!preloads.containsKey(entry.getKey())) {
+                start(entry.getKey(), entry.getValue().localConfiguration.uri);
+            }
+        }
+    }
+
+    private void start(String key, Uri uri) {
+        Preload preload = new Preload(key);
+        preloads.put(key, preload);
+        executor.execute(() -> preload.run(uri));
+    }
+
+    // Only remote items are worth warming; local files and downloads already open instantly
+    @Nullable
+    private static String cacheKey(MediaItem item) {
+        if (item.localConfiguration == null) {
+            return null;
+        }
+        String scheme = item.localConfiguration.uri.getScheme();
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            return null;
+        }
+        String customKey = item.localConfiguration.customCacheKey;
+        return customKey != null ? customKey : item.localConfiguration.uri.toString();
+    }
+
+    private final class Preload {
+
+        final String key;
+        volatile boolean createdEntry = false;
+        private volatile boolean cancelled = false;
+        private volatile CacheWriter writer;
+
+        Preload(String key) {
+            this.key = key;
+        }
+
+        void run(Uri uri) {
+            if (cancelled) {
+                return;
+            }
+            // Playback reads downloads first, so a downloaded start needs nothing from the network
+            if (episodeDownloads.hasDownloaded(key, PRELOAD_BYTES)) {
+                return;
+            }
+            long cached = mediaCache.cachedBytes(key, PRELOAD_BYTES);
+            if (cached >= PRELOAD_BYTES) {
+                return;
+            }
+            createdEntry = cached <= 0;
+
+            DataSpec dataSpec = new DataSpec.Builder()
+                .setUri(uri)
+                .setKey(key)
+                .setPosition(0)
+                .setLength(PRELOAD_BYTES)
+                .build();
+            writer = new CacheWriter(
+                dataSourceFactory.createDataSource(),
+                dataSpec,
+                new byte[COPY_BUFFER_BYTES],
+                null
+            );
+            try {
+                if (!cancelled) {
+                    writer.cache();
+                    Log.i(TAG, "Preloaded " + key);
+                }
+            } catch (InterruptedIOException ex) {
+                // Cancelled because the queue moved on
+            } catch (Exception ex) {
+                Log.w(TAG, "Preload failed for " + key, ex);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            CacheWriter current = writer;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
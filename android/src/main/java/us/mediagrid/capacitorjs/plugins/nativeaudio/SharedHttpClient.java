@@ -0,0 +1,82 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.util.Log;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.okhttp.OkHttpDataSource;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
+import androidx.media3.exoplayer.source.MediaSource;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * One keep-alive HTTP client for the whole plugin so Supabase queries, artwork downloads,
+ * metadata polling and ExoPlayer all share pooled connections (and HTTP/2 where the server
+ * offers it) instead of paying a new TLS handshake per request.
+ */
+public final class SharedHttpClient {
+
+    private static final String TAG = "SharedHttpClient";
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    private static volatile OkHttpClient client;
+
+    private SharedHttpClient() {}
+
+    public static OkHttpClient get(Context context) {
+        OkHttpClient current = client;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (SharedHttpClient.class) {
+            if (client == null) {
+                Log.i(TAG, "Creating shared OkHttpClient");
+                client = new OkHttpClient.Builder()
+                    .connectionPool(
+                        new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES)
+                    )
+                    .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                    .retryOnConnectionFailure(true)
+                    .followRedirects(true)
+                    .followSslRedirects(true)
+                    .build();
+            }
+            return client;
+        }
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    public static DataSource.Factory dataSourceFactory(Context context) {
+        Context appContext = context.getApplicationContext();
+        OkHttpDataSource.Factory httpFactory = new OkHttpDataSource.Factory(get(appContext));
+
+        // DefaultDataSource keeps asset/file/content URIs working and only routes http(s) to OkHttp
+        return new DefaultDataSource.Factory(appContext, httpFactory);
+    }
+
+    /**
+     * Like {@link #dataSourceFactory}, but http(s) reads come from {@link EpisodeDownloads} first
+     * and then go through {@link MediaCache}.
+     */
+    @OptIn(markerClass = UnstableApi.class)
+    public static MediaSource.Factory mediaSourceFactory(Context context) {
+        Context appContext = context.getApplicationContext();
+        DataSource.Factory cachedHttpFactory = MediaCache.get(appContext).dataSourceFactory(
+            new OkHttpDataSource.Factory(get(appContext))
+        );
+        DataSource.Factory downloadedFactory = EpisodeDownloads.get(appContext).dataSourceFactory(
+            cachedHttpFactory
+        );
+        return new DefaultMediaSourceFactory(
+            new DefaultDataSource.Factory(appContext, downloadedFactory)
+        );
+    }
+}
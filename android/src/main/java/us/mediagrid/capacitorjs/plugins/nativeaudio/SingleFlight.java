@@ -0,0 +1,122 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.os.SystemClock;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces identical requests: while a load for a key is running, every other caller for that
+ * key waits on the same future instead of starting its own. A successful result stays shareable
+ * for a short settle window so back-to-back duplicates (browse, then queue build for the same
+ * list) are also served once. Failures are never shared past the in-flight call.
+ *
+ * <p>If the owner of a load is cancelled (its thread interrupted), waiters do not inherit the
+ * cancellation: the first of them takes over and runs the load itself.
+ */
+public class SingleFlight<V> {
+
+    private final long settleWindowMs;
+    private final LongSupplier clock;
+    private final Map<String, Flight<V>> flights = new HashMap<>();
+
+    public SingleFlight(long settleWindowMs) {
+        this(settleWindowMs, SystemClock::elapsedRealtime);
+    }
+
+    SingleFlight(long settleWindowMs, LongSupplier clock) {
+        this.settleWindowMs = settleWindowMs;
+        this.clock = clock;
+    }
+
+    public V run(String key, Callable<V> loader) throws Exception {
+        while (true) {
+            Flight<V> flight;
+            boolean owner = false;
+
+            synchronized (flights) {
+                long now = clock.getAsLong();
+                purgeExpired(now);
+                flight = flights.get(key);
+                if (flight == null) {
+                    flight = new Flight<>();
+                    flights.put(key, flight);
+                    owner = true;
+                }
+            }
+
+            if (!owner) {
+                try {
+                    return await(flight.future);
+                } catch (OwnerCancelledException ex) {
+                    continue;
+                }
+            }
+
+            try {
+                V value = loader.call();
+                synchronized (flights) {
+                    flight.completedAt = clock.getAsLong();
+                }
+                flight.future.set(value);
+                return value;
+            } catch (Exception ex) {
+                synchronized (flights) {
+                    flights.remove(key, flight);
+                }
+                flight.future.setException(
+                    isCancellation(ex) ? new OwnerCancelledException() : ex
+                );
+                throw ex;
+            }
+        }
+    }
+
+    // A timeout is a real failure to share; an interrupt only means this caller gave up
+    private static boolean isCancellation(Exception ex) {
+        return (
+            Thread.currentThread().isInterrupted() ||
+            ex instanceof InterruptedException ||
+            ex instanceof CancellationException ||
+            (ex instanceof InterruptedIOException && !(ex instanceof SocketTimeoutException))
+        );
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Flight<V>> iterator = flights.values().iterator();
+        while (iterator.hasNext()) {
+            Flight<V> flight = iterator.next();
+            if (flight.completedAt > 0 && now - flight.completedAt > settleWindowMs) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static <V> V await(ListenableFuture<V> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static final class OwnerCancelledException extends Exception {}
+
+    private static class Flight<V> {
+
+        final SettableFuture<V> future = SettableFuture.create();
+        long completedAt = 0;
+    }
+}
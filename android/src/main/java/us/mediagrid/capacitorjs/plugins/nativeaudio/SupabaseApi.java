@@ -1,204 +1,149 @@
 package us.mediagrid.capacitorjs.plugins.nativeaudio;
 
 import android.content.Context;
+import android.os.SystemClock;
+import android.util.JsonReader;
+import android.util.JsonToken;
 import android.util.Log;
 import android.net.Uri;
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 public class SupabaseApi {
     private static final String TAG = "SupabaseApi";
+    private static final long SETTLE_WINDOW_MS = 3000;
+    private static final SingleFlight<List<?>> inFlightRequests = new SingleFlight<>(SETTLE_WINDOW_MS);
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+    private static final long READ_TIMEOUT_MS = 8000;
+    private static final long ATTEMPT_TIMEOUT_MS = 10000;
+    private static final long REQUEST_DEADLINE_MS = 15000;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_BASE_MS = 300;
+    private static final long BACKOFF_MAX_MS = 3000;
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final long BREAKER_OPEN_MS = 30 * 1000;
+    private static final CircuitBreaker circuitBreaker = new CircuitBreaker(
+        BREAKER_FAILURE_THRESHOLD,
+        BREAKER_OPEN_MS
+    );
+    private static volatile OkHttpClient httpClient;
+    private static final String PLAYLIST_COLUMNS =
+        "id,title,description,cover_image_path,category,updated_at";
+    private static final String EPISODE_COLUMNS =
+        "id,title,summary,published_at,image_url,audio_url,podcasts(id,title,image_url)";
     private final Context context;
 
     public SupabaseApi(Context context) {
         this.context = context.getApplicationContext();
     }
 
-    public List<AutoPlaylist> fetchSeries(int limit) throws Exception {
+    public List<AutoPlaylist> fetchSeries(int limit, int offset) throws Exception {
         AutoAuthConfig config = AutoAuthStore.load(context);
         if (config == null || !config.isValidForPublic()) {
             Log.w(TAG, "fetchSeries: missing auth config");
             return new ArrayList<>();
         }
 
-        Uri uri = Uri.parse(config.supabaseUrl)
-            .buildUpon()
-            .appendEncodedPath("rest/v1/playlists")
-            .appendQueryParameter("select", "id,title,description,cover_image_path")
+        Uri uri = playlistsQuery(config, PLAYLIST_COLUMNS)
             .appendQueryParameter("category", "eq.series")
             .appendQueryParameter("is_published", "eq.true")
             .appendQueryParameter("visibility", "eq.public")
             .appendQueryParameter("order", "updated_at.desc")
             .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset))
             .build();
 
-        JSONArray rows = fetchJsonArray(uri.toString(), config, false);
-        List<AutoPlaylist> results = new ArrayList<>();
-        for (int i = 0; i < rows.length(); i++) {
-            JSONObject row = rows.getJSONObject(i);
-            results.add(
-                new AutoPlaylist(
-                    row.optString("id"),
-                    row.optString("title"),
-                    row.optString("description"),
-                    row.optString("cover_image_path")
-                )
-            );
-        }
-        return results;
+        return fetchRows(uri.toString(), config, false, SupabaseApi::readPlaylist);
     }
 
-    public List<AutoPlaylist> fetchPublicPlaylists(int limit) throws Exception {
+    public List<AutoPlaylist> fetchPublicPlaylists(int limit, int offset) throws Exception {
         AutoAuthConfig config = AutoAuthStore.load(context);
         if (config == null || !config.isValidForPublic()) {
             Log.w(TAG, "fetchPublicPlaylists: missing auth config");
             return new ArrayList<>();
         }
 
-        Uri uri = Uri.parse(config.supabaseUrl)
-            .buildUpon()
-            .appendEncodedPath("rest/v1/playlists")
-            .appendQueryParameter("select", "id,title,description,cover_image_path")
+        Uri uri = playlistsQuery(config, PLAYLIST_COLUMNS)
             .appendQueryParameter("is_published", "eq.true")
             .appendQueryParameter("visibility", "eq.public")
             .appendQueryParameter("order", "updated_at.desc")
             .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset))
             .build();
 
-        JSONArray rows = fetchJsonArray(uri.toString(), config, false);
-        List<AutoPlaylist> results = new ArrayList<>();
-        for (int i = 0; i < rows.length(); i++) {
-            JSONObject row = rows.getJSONObject(i);
-            results.add(
-                new AutoPlaylist(
-                    row.optString("id"),
-                    row.optString("title"),
-                    row.optString("description"),
-                    row.optString("cover_image_path")
-                )
-            );
-        }
-        return results;
+        return fetchRows(uri.toString(), config, false, SupabaseApi::readPlaylist);
     }
 
-    public List<AutoEpisode> fetchLatestEpisodes(int limit) throws Exception {
+    public List<AutoEpisode> fetchLatestEpisodes(int limit, int offset) throws Exception {
         AutoAuthConfig config = AutoAuthStore.load(context);
         if (config == null || !config.isValidForPublic()) {
             Log.w(TAG, "fetchLatestEpisodes: missing auth config");
             return new ArrayList<>();
         }
 
-        Uri uri = Uri.parse(config.supabaseUrl)
-            .buildUpon()
-            .appendEncodedPath("rest/v1/episodes")
-            .appendQueryParameter(
-                "select",
-                "id,title,summary,published_at,duration_seconds,image_url,audio_url,podcasts(title,image_url)"
-            )
+        Uri uri = episodesQuery(config)
             .appendQueryParameter("order", "published_at.desc")
             .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset))
             .build();
 
-        JSONArray rows = fetchJsonArray(uri.toString(), config, false);
-        List<AutoEpisode> results = new ArrayList<>();
-        for (int i = 0; i < rows.length(); i++) {
-            JSONObject row = rows.getJSONObject(i);
-            JSONObject podcast = row.optJSONObject("podcasts");
-            results.add(
-                new AutoEpisode(
-                    row.optString("id"),
-                    row.optString("title"),
-                    row.optString("summary"),
-                    row.optString("image_url"),
-                    row.optString("audio_url"),
-                    podcast != null ? podcast.optString("title") : null,
-                    podcast != null ? podcast.optString("image_url") : null
-                )
-            );
-        }
-        return results;
-    }
-
-    public List<AutoEpisode> fetchSeriesEpisodes(String playlistId, int limit) throws Exception {
-        AutoAuthConfig config = AutoAuthStore.load(context);
-        if (config == null || !config.isValidForPublic()) {
-            Log.w(TAG, "fetchSeriesEpisodes: missing auth config");
-            return new ArrayList<>();
-        }
-
-        Uri uri = Uri.parse(config.supabaseUrl)
-            .buildUpon()
-            .appendEncodedPath("rest/v1/playlist_items")
-            .appendQueryParameter(
-                "select",
-                "id,sort_order,episodes(id,title,summary,image_url,audio_url,podcasts(title,image_url))"
-            )
-            .appendQueryParameter("playlist_id", "eq." + playlistId)
-            .appendQueryParameter("order", "sort_order.asc")
-            .appendQueryParameter("limit", String.valueOf(limit))
-            .build();
-
-        JSONArray rows = fetchJsonArray(uri.toString(), config, false);
-        List<AutoEpisode> results = new ArrayList<>();
-        for (int i = 0; i < rows.length(); i++) {
-            JSONObject row = rows.getJSONObject(i);
-            JSONObject episode = row.optJSONObject("episodes");
-            if (episode == null) {
-                continue;
-            }
-            JSONObject podcast = episode.optJSONObject("podcasts");
-            results.add(
-                new AutoEpisode(
-                    episode.optString("id"),
-                    episode.optString("title"),
-                    episode.optString("summary"),
-                    episode.optString("image_url"),
-                    episode.optString("audio_url"),
-                    podcast != null ? podcast.optString("title") : null,
-                    podcast != null ? podcast.optString("image_url") : null
-                )
-            );
-        }
-        return results;
+        return fetchRows(uri.toString(), config, false, SupabaseApi::readEpisode);
     }
 
-    public String fetchPlaylistCover(String playlistId) throws Exception {
+    /**
+     * One series node in a single round trip: the playlist row (for its cover) with one page of
+     * its items embedded in {@code sort_order}.
+     */
+    public AutoSeriesPage fetchSeriesPage(String playlistId, int limit, int offset)
+        throws Exception {
         AutoAuthConfig config = AutoAuthStore.load(context);
         if (config == null || !config.isValidForPublic()) {
-            Log.w(TAG, "fetchPlaylistCover: missing auth config");
-            return null;
+            Log.w(TAG, "fetchSeriesPage: missing auth config");
+            return new AutoSeriesPage(null, new ArrayList<>());
         }
 
-        Uri uri = Uri.parse(config.supabaseUrl)
-            .buildUpon()
-            .appendEncodedPath("rest/v1/playlists")
-            .appendQueryParameter("select", "cover_image_path")
+        Uri uri = playlistsQuery(
+            config,
+            PLAYLIST_COLUMNS + ",playlist_items(id,sort_order,episodes(" + EPISODE_COLUMNS + "))"
+        )
             .appendQueryParameter("id", "eq." + playlistId)
-            .appendQueryParameter("limit", "1")
+            .appendQueryParameter("playlist_items.order", "sort_order.asc")
+            .appendQueryParameter("playlist_items.limit", String.valueOf(limit))
+            .appendQueryParameter("playlist_items.offset", String.valueOf(offset))
             .build();
 
-        JSONArray rows = fetchJsonArray(uri.toString(), config, false);
-        if (rows.length() == 0) {
-            return null;
+        List<AutoSeriesPage> rows = fetchRows(
+            uri.toString(),
+            config,
+            false,
+            SupabaseApi::readSeriesPage
+        );
+        if (rows.isEmpty()) {
+            return new AutoSeriesPage(null, new ArrayList<>());
         }
-        JSONObject row = rows.getJSONObject(0);
-        return row.optString("cover_image_path", null);
+        return rows.get(0);
     }
 
-    public List<AutoContinueItem> fetchContinueListening(int limit) throws Exception {
+    public List<AutoContinueItem> fetchContinueListening(int limit, int offset) throws Exception {
         AutoAuthConfig config = AutoAuthStore.load(context);
         if (config == null || !config.isValidForAuth()) {
             Log.w(TAG, "fetchContinueListening: missing auth config");
             return new ArrayList<>();
         }
-        if (AutoAuthStore.isTokenExpired(config.accessToken)) {
+        if (config.isTokenExpired()) {
             Log.w(TAG, "fetchContinueListening: access token expired");
             return new ArrayList<>();
         }
@@ -208,78 +153,602 @@ public class SupabaseApi {
             .appendEncodedPath("rest/v1/user_episode_progress")
             .appendQueryParameter(
                 "select",
-                "progress_ms,episodes(id,title,summary,image_url,audio_url,podcasts(title,image_url))"
+                "progress_ms,episodes(" + EPISODE_COLUMNS + ")"
             )
             .appendQueryParameter("completed", "eq.false")
             .appendQueryParameter("order", "last_listened_at.desc")
-            .appendQueryParameter("limit", String.valueOf(limit));
+            .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset));
 
-        String userId = AutoAuthStore.extractUserId(config.accessToken);
-        if (userId != null && !userId.isEmpty()) {
-            builder.appendQueryParameter("user_id", "eq." + userId);
+        if (config.userId != null && !config.userId.isEmpty()) {
+            builder.appendQueryParameter("user_id", "eq." + config.userId);
         }
 
-        JSONArray rows = fetchJsonArray(builder.build().toString(), config, true);
-        List<AutoContinueItem> results = new ArrayList<>();
-        for (int i = 0; i < rows.length(); i++) {
-            JSONObject row = rows.getJSONObject(i);
-            JSONObject episode = row.optJSONObject("episodes");
-            if (episode == null) {
-                continue;
+        return fetchRows(builder.build().toString(), config, true, SupabaseApi::readContinueItem);
+    }
+
+    /**
+     * Playlists whose {@code updated_at} is at or after {@code watermark}, oldest first, including
+     * ones that are no longer listed so a local copy can drop them. A null watermark pages
+     * through every playlist.
+     */
+    public List<AutoPlaylist> fetchPlaylistsChangedSince(String watermark, int limit, int offset)
+        throws Exception {
+        AutoAuthConfig config = AutoAuthStore.load(context);
+        if (config == null || !config.isValidForPublic()) {
+            Log.w(TAG, "fetchPlaylistsChangedSince: missing auth config");
+            return new ArrayList<>();
+        }
+
+        Uri.Builder builder = playlistsQuery(config, PLAYLIST_COLUMNS + ",is_published,visibility")
+            .appendQueryParameter("order", "updated_at.asc,id.asc")
+            .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset));
+        if (watermark != null) {
+            builder.appendQueryParameter("updated_at", "gte." + watermark);
+        }
+
+        return fetchRows(builder.build().toString(), config, false, SupabaseApi::readPlaylist);
+    }
+
+    /**
+     * Episodes whose {@code column} ({@code updated_at} or {@code published_at}) is at or after
+     * {@code watermark}, oldest first. Throws {@link MissingColumnException} when the project's
+     * episodes table has no such column.
+     */
+    public List<AutoEpisode> fetchEpisodesChangedSince(
+        String column,
+        String watermark,
+        int limit,
+        int offset
+    ) throws Exception {
+        AutoAuthConfig config = AutoAuthStore.load(context);
+        if (config == null || !config.isValidForPublic()) {
+            Log.w(TAG, "fetchEpisodesChangedSince: missing auth config");
+            return new ArrayList<>();
+        }
+
+        String columns = "published_at".equals(column)
+            ? EPISODE_COLUMNS
+            : EPISODE_COLUMNS + "," + column;
+        Uri uri = episodesQuery(config, columns)
+            .appendQueryParameter(column, "gte." + watermark)
+            .appendQueryParameter("order", column + ".asc,id.asc")
+            .appendQueryParameter("limit", String.valueOf(limit))
+            .appendQueryParameter("offset", String.valueOf(offset))
+            .build();
+
+        return fetchRows(uri.toString(), config, false, SupabaseApi::readEpisode);
+    }
+
+    /** Server-side full-text search over episode titles, newest first. */
+    public List<AutoEpisode> searchEpisodes(String query, int limit) throws Exception {
+        AutoAuthConfig config = AutoAuthStore.load(context);
+        if (config == null || !config.isValidForPublic()) {
+            Log.w(TAG, "searchEpisodes: missing auth config");
+            return new ArrayList<>();
+        }
+
+        Uri uri = episodesQuery(config)
+            .appendQueryParameter("title", "wfts." + query)
+            .appendQueryParameter("order", "published_at.desc")
+            .appendQueryParameter("limit", String.valueOf(limit))
+            .build();
+
+        return fetchRows(uri.toString(), config, false, SupabaseApi::readEpisode);
+    }
+
+    private static Uri.Builder playlistsQuery(AutoAuthConfig config, String columns) {
+        return Uri.parse(config.supabaseUrl)
+            .buildUpon()
+            .appendEncodedPath("rest/v1/playlists")
+            .appendQueryParameter("select", columns);
+    }
+
+    private static Uri.Builder episodesQuery(AutoAuthConfig config) {
+        return episodesQuery(config, EPISODE_COLUMNS);
+    }
+
+    private static Uri.Builder episodesQuery(AutoAuthConfig config, String columns) {
+        return Uri.parse(config.supabaseUrl)
+            .buildUpon()
+            .appendEncodedPath("rest/v1/episodes")
+            .appendQueryParameter("select", columns);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> fetchRows(
+        String urlString,
+        AutoAuthConfig config,
+        boolean requireAuth,
+        RowReader<T> rowReader
+    ) throws Exception {
+        String accessToken = null;
+        if (requireAuth && config.hasAccessToken()) {
+            if (!config.isTokenExpired()) {
+                accessToken = config.accessToken;
+            } else {
+                Log.w(TAG, "fetchRows: access token expired, omitting Authorization");
             }
-            JSONObject podcast = episode.optJSONObject("podcasts");
-            AutoEpisode autoEpisode = new AutoEpisode(
-                episode.optString("id"),
-                episode.optString("title"),
-                episode.optString("summary"),
-                episode.optString("image_url"),
-                episode.optString("audio_url"),
-                podcast != null ? podcast.optString("title") : null,
-                podcast != null ? podcast.optString("image_url") : null
-            );
-            results.add(new AutoContinueItem(autoEpisode, row.optLong("progress_ms", 0)));
         }
-        return results;
+
+        String identity = accessToken != null ? config.userId : null;
+        String cacheKey = SupabaseResponseCache.key(urlString, identity);
+        String bearer = accessToken;
+        return (List<T>) inFlightRequests.run(
+            cacheKey,
+            () -> Collections.unmodifiableList(
+                requestRows(urlString, config, bearer, cacheKey, rowReader)
+            )
+        );
     }
 
-    private JSONArray fetchJsonArray(
+    private <T> List<T> requestRows(
         String urlString,
         AutoAuthConfig config,
-        boolean requireAuth
+        String accessToken,
+        String cacheKey,
+        RowReader<T> rowReader
     ) throws Exception {
-        HttpURLConnection connection = (HttpURLConnection) new URL(urlString).openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Accept", "application/json");
-        connection.setRequestProperty("apikey", config.supabaseAnonKey);
-        if (requireAuth && config.accessToken != null && !config.accessToken.isEmpty()) {
-            if (!AutoAuthStore.isTokenExpired(config.accessToken)) {
-                connection.setRequestProperty("Authorization", "Bearer " + config.accessToken);
+        Request.Builder request = new Request.Builder()
+            .url(urlString)
+            .get()
+            .header("Accept", "application/json")
+            .header("apikey", config.supabaseAnonKey);
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+
+        SupabaseResponseCache cache = SupabaseResponseCache.get(context);
+        SupabaseResponseCache.Entry cached = cache.get(cacheKey);
+        if (cached != null) {
+            if (cached.etag != null) {
+                request.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                request.header("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        if (!circuitBreaker.allowRequest()) {
+            if (cached != null) {
+                Log.w(TAG, "Supabase circuit open, serving cached " + urlString);
+                return readCached(cache, cached, rowReader);
+            }
+            throw new IOException("Supabase circuit open for " + urlString);
+        }
+
+        Response attempted;
+        try {
+            attempted = execute(request.build());
+        } catch (IOException ex) {
+            if (cached != null) {
+                Log.w(TAG, "Supabase unreachable, serving cached " + urlString, ex);
+                return readCached(cache, cached, rowReader);
+            }
+            throw ex;
+        }
+
+        try (Response response = attempted) {
+            int code = response.code();
+            if (code == 304 && cached != null) {
+                cache.touch(cached);
+                return readCached(cache, cached, rowReader);
+            }
+            if (isRetryable(code) && cached != null) {
+                Log.w(TAG, "Supabase " + code + ", serving cached " + urlString);
+                return readCached(cache, cached, rowReader);
+            }
+
+            ResponseBody body = response.body();
+            if (!response.isSuccessful()) {
+                String payload = body != null ? body.string() : "";
+                Log.e(TAG, "Supabase error " + code + " for " + urlString + ": " + payload);
+                // PostgREST passes Postgres' undefined_column code through
+                if (code == 400 && payload.contains("\"42703\"")) {
+                    throw new MissingColumnException(payload);
+                }
+                throw new RuntimeException("Supabase error " + code + ": " + payload);
+            }
+            if (body == null) {
+                return new ArrayList<>();
+            }
+
+            SupabaseResponseCache.Editor editor = cache.edit(cacheKey);
+            try {
+                List<T> rows = readRows(editor.wrap(body.byteStream()), rowReader);
+                editor.commit(response.header("ETag"), response.header("Last-Modified"));
+                return rows;
+            } catch (Exception ex) {
+                editor.abort();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Runs an idempotent GET under one overall deadline, retrying connection failures and
+     * 408/429/5xx with capped exponential backoff and full jitter. The circuit breaker sees one
+     * outcome per logical request, not one per attempt.
+     */
+    private Response execute(Request request) throws IOException {
+        long deadline = SystemClock.elapsedRealtime() + REQUEST_DEADLINE_MS;
+        // An interrupt or unexpected exception must not leave the breaker waiting on a lost probe
+        boolean settled = false;
+        try {
+            for (int attempt = 1;; attempt++) {
+                long remaining = deadline - SystemClock.elapsedRealtime();
+                // Okio reads a zero timeout as none at all, so a spent deadline ends here
+                if (remaining <= 0) {
+                    circuitBreaker.recordFailure();
+                    settled = true;
+                    throw new InterruptedIOException(
+                        "Deadline exceeded for " + request.url().encodedPath()
+                    );
+                }
+                Call call = client().newCall(request);
+                call.timeout().timeout(
+                    Math.min(ATTEMPT_TIMEOUT_MS, remaining),
+                    TimeUnit.MILLISECONDS
+                );
+
+                Response response = null;
+                IOException failure = null;
+                try {
+                    response = call.execute();
+                    if (!isRetryable(response.code())) {
+                        circuitBreaker.recordSuccess();
+                        settled = true;
+                        return response;
+                    }
+                } catch (IOException ex) {
+                    failure = ex;
+                }
+
+                long delay = backoffMs(attempt, response);
+                boolean canRetry = attempt < MAX_ATTEMPTS &&
+                    SystemClock.elapsedRealtime() + delay < deadline;
+                if (!canRetry) {
+                    circuitBreaker.recordFailure();
+                    settled = true;
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return response;
+                }
+
+                String reason = failure != null ? failure.toString() : "http " + response.code();
+                Log.w(
+                    TAG,
+                    "Retrying " + request.url().encodedPath() + " in " + delay + "ms (attempt " +
+                    attempt + ", " + reason + ")"
+                );
+                if (response != null) {
+                    response.close();
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while backing off");
+                }
+            }
+        } finally {
+            if (!settled) {
+                circuitBreaker.releaseProbe();
+            }
+        }
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    private static long backoffMs(int attempt, Response response) {
+        String retryAfter = response != null ? response.header("Retry-After") : null;
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // HTTP-date form; fall through to our own backoff
+            }
+        }
+        long ceiling = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << (attempt - 1));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private OkHttpClient client() {
+        OkHttpClient current = httpClient;
+        if (current != null) {
+            return current;
+        }
+        synchronized (SupabaseApi.class) {
+            if (httpClient == null) {
+                httpClient = SharedHttpClient.get(context)
+                    .newBuilder()
+                    .connectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .readTimeout(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                    .build();
+            }
+            return httpClient;
+        }
+    }
+
+    private static <T> List<T> readCached(
+        SupabaseResponseCache cache,
+        SupabaseResponseCache.Entry cached,
+        RowReader<T> rowReader
+    ) throws Exception {
+        try (InputStream stream = cache.openBody(cached)) {
+            return readRows(stream, rowReader);
+        }
+    }
+
+    private static <T> List<T> readRows(InputStream stream, RowReader<T> rowReader)
+        throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        return readRows(reader, rowReader);
+    }
+
+    private static <T> List<T> readRows(JsonReader reader, RowReader<T> rowReader)
+        throws IOException {
+        List<T> results = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            T row = rowReader.read(reader);
+            if (row != null) {
+                results.add(row);
+            }
+        }
+        reader.endArray();
+        return results;
+    }
+
+    private static AutoPlaylist readPlaylist(JsonReader reader) throws IOException {
+        return readPlaylist(reader, null);
+    }
+
+    private static AutoSeriesPage readSeriesPage(JsonReader reader) throws IOException {
+        List<AutoEpisode> episodes = new ArrayList<>();
+        AutoPlaylist playlist = readPlaylist(reader, episodes);
+        return playlist == null ? null : new AutoSeriesPage(playlist, episodes);
+    }
+
+    // Collects embedded playlist_items into items when given one, skips them otherwise
+    private static AutoPlaylist readPlaylist(JsonReader reader, List<AutoEpisode> items)
+        throws IOException {
+        String id = null;
+        String title = null;
+        String description = null;
+        String coverImagePath = null;
+        String category = null;
+        String updatedAt = null;
+        boolean published = true;
+        String visibility = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextStringOrNull(reader);
+                    break;
+                case "title":
+                    title = nextStringOrNull(reader);
+                    break;
+                case "description":
+                    description = nextStringOrNull(reader);
+                    break;
+                case "cover_image_path":
+                    coverImagePath = nextStringOrNull(reader);
+                    break;
+                case "category":
+                    category = nextStringOrNull(reader);
+                    break;
+                case "updated_at":
+                    updatedAt = nextStringOrNull(reader);
+                    break;
+                case "is_published":
+                    published = !"false".equals(nextStringOrNull(reader));
+                    break;
+                case "visibility":
+                    visibility = nextStringOrNull(reader);
+                    break;
+                case "playlist_items":
+                    if (items != null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        items.addAll(readRows(reader, SupabaseApi::readPlaylistItemEpisode));
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null) {
+            return null;
+        }
+        boolean listed = published && (visibility == null || "public".equals(visibility));
+        return new AutoPlaylist(
+            id,
+            title,
+            description,
+            coverImagePath,
+            category,
+            updatedAt,
+            listed
+        );
+    }
+
+    private static AutoEpisode readEpisode(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String title = null;
+        String summary = null;
+        String imageUrl = null;
+        String audioUrl = null;
+        String publishedAt = null;
+        String updatedAt = null;
+        String[] podcast = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = nextStringOrNull(reader);
+                    break;
+                case "title":
+                    title = nextStringOrNull(reader);
+                    break;
+                case "summary":
+                    summary = nextStringOrNull(reader);
+                    break;
+                case "image_url":
+                    imageUrl = nextStringOrNull(reader);
+                    break;
+                case "audio_url":
+                    audioUrl = nextStringOrNull(reader);
+                    break;
+                case "published_at":
+                    publishedAt = nextStringOrNull(reader);
+                    break;
+                case "updated_at":
+                    updatedAt = nextStringOrNull(reader);
+                    break;
+                case "podcasts":
+                    podcast = readPodcast(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (id == null) {
+            return null;
+        }
+        return new AutoEpisode(
+            id,
+            title,
+            summary,
+            imageUrl,
+            audioUrl,
+            publishedAt,
+            updatedAt,
+            podcast != null ? podcast[0] : null,
+            podcast != null ? podcast[1] : null,
+            podcast != null ? podcast[2] : null
+        );
+    }
+
+    private static AutoEpisode readPlaylistItemEpisode(JsonReader reader) throws IOException {
+        AutoEpisode episode = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("episodes".equals(reader.nextName())) {
+                episode = readEpisode(reader);
             } else {
-                Log.w(TAG, "fetchJsonArray: access token expired, omitting Authorization");
+                reader.skipValue();
             }
         }
+        reader.endObject();
+
+        return episode;
+    }
 
-        int code = connection.getResponseCode();
-        InputStream stream = code >= 200 && code < 300
-            ? connection.getInputStream()
-            : connection.getErrorStream();
-        String payload = readStream(stream);
-        if (code < 200 || code >= 300) {
-            Log.e(TAG, "Supabase error " + code + " for " + urlString + ": " + payload);
-            throw new RuntimeException("Supabase error " + code + ": " + payload);
+    private static AutoContinueItem readContinueItem(JsonReader reader) throws IOException {
+        AutoEpisode episode = null;
+        long progressMs = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "episodes":
+                    episode = readEpisode(reader);
+                    break;
+                case "progress_ms":
+                    if (reader.peek() == JsonToken.NULL) {
+                        reader.nextNull();
+                    } else {
+                        progressMs = reader.nextLong();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
-        return new JSONArray(payload);
+        reader.endObject();
+
+        return episode == null ? null : new AutoContinueItem(episode, progressMs);
     }
 
-    private String readStream(InputStream stream) throws Exception {
-        StringBuilder builder = new StringBuilder();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            builder.append(line);
+    // Returns {id, title, image_url}; PostgREST embeds a to-one relation as an object, but tolerate an array
+    private static String[] readPodcast(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        if (token == JsonToken.BEGIN_ARRAY) {
+            String[] first = null;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String[] podcast = readPodcast(reader);
+                if (first == null) {
+                    first = podcast;
+                }
+            }
+            reader.endArray();
+            return first;
+        }
+
+        String[] podcast = new String[3];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    podcast[0] = nextStringOrNull(reader);
+                    break;
+                case "title":
+                    podcast[1] = nextStringOrNull(reader);
+                    break;
+                case "image_url":
+                    podcast[2] = nextStringOrNull(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
         }
-        reader.close();
-        return builder.toString();
+        reader.endObject();
+        return podcast;
+    }
+
+    private static String nextStringOrNull(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(reader.nextBoolean());
+        }
+        // nextString also coerces numbers, matching the old optString behaviour
+        return reader.nextString();
+    }
+
+    private interface RowReader<T> {
+        T read(JsonReader reader) throws IOException;
     }
 
     public static class AutoPlaylist {
@@ -287,12 +756,26 @@ public class SupabaseApi {
         public final String title;
         public final String description;
         public final String coverImagePath;
+        public final String category;
+        public final String updatedAt;
+        public final boolean listed;
 
-        public AutoPlaylist(String id, String title, String description, String coverImagePath) {
+        public AutoPlaylist(
+            String id,
+            String title,
+            String description,
+            String coverImagePath,
+            String category,
+            String updatedAt,
+            boolean listed
+        ) {
             this.id = id;
             this.title = title;
             this.description = description;
             this.coverImagePath = coverImagePath;
+            this.category = category;
+            this.updatedAt = updatedAt;
+            this.listed = listed;
         }
     }
 
@@ -302,6 +785,10 @@ public class SupabaseApi {
         public final String summary;
         public final String imageUrl;
         public final String audioUrl;
+        public final String publishedAt;
+        // Only set on rows fetched by a sync that watermarks on it
+        public final String updatedAt;
+        public final String podcastId;
         public final String podcastTitle;
         public final String podcastImageUrl;
 
@@ -311,6 +798,34 @@ public class SupabaseApi {
             String summary,
             String imageUrl,
             String audioUrl,
+            String publishedAt,
+            String podcastId,
+            String podcastTitle,
+            String podcastImageUrl
+        ) {
+            this(
+                id,
+                title,
+                summary,
+                imageUrl,
+                audioUrl,
+                publishedAt,
+                null,
+                podcastId,
+                podcastTitle,
+                podcastImageUrl
+            );
+        }
+
+        public AutoEpisode(
+            String id,
+            String title,
+            String summary,
+            String imageUrl,
+            String audioUrl,
+            String publishedAt,
+            String updatedAt,
+            String podcastId,
             String podcastTitle,
             String podcastImageUrl
         ) {
@@ -319,11 +834,32 @@ public class SupabaseApi {
             this.summary = summary;
             this.imageUrl = imageUrl;
             this.audioUrl = audioUrl;
+            this.publishedAt = publishedAt;
+            this.updatedAt = updatedAt;
+            this.podcastId = podcastId;
             this.podcastTitle = podcastTitle;
             this.podcastImageUrl = podcastImageUrl;
         }
     }
 
+    /** The queried column does not exist in this project's schema. */
+    public static class MissingColumnException extends RuntimeException {
+
+        public MissingColumnException(String message) {
+            super(message);
+        }
+    }
+
+    public static class AutoSeriesPage {
+        public final AutoPlaylist playlist;
+        public final List<AutoEpisode> episodes;
+
+        public AutoSeriesPage(AutoPlaylist playlist, List<AutoEpisode> episodes) {
+            this.playlist = playlist;
+            this.episodes = episodes;
+        }
+    }
+
     public static class AutoContinueItem {
         public final AutoEpisode episode;
         public final long progressMs;
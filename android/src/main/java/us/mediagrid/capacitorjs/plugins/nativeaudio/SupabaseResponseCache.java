@@ -0,0 +1,310 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.json.JSONObject;
+
+/**
+ * Disk cache of PostgREST responses keyed by the normalized request URL and the caller's auth
+ * identity. Entries keep the ETag/Last-Modified validators so callers can revalidate with a
+ * conditional request and serve the stored body on a 304.
+ */
+public class SupabaseResponseCache {
+
+    private static final String TAG = "SupabaseResponseCache";
+    private static final String DIRECTORY = "supabase-responses";
+    private static final String BODY_SUFFIX = ".body";
+    private static final String META_SUFFIX = ".meta";
+    private static final long MAX_BYTES = 8L * 1024 * 1024;
+
+    private static volatile SupabaseResponseCache instance;
+
+    private final File directory;
+    private final long maxBytes;
+
+    SupabaseResponseCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+
+        // Temp files only survive if the process died mid-response
+        File[] leftovers = directory.listFiles((dir, name) -> name.endsWith(".tmp"));
+        if (leftovers != null) {
+            for (File file : leftovers) {
+                file.delete();
+            }
+        }
+    }
+
+    public static SupabaseResponseCache get(Context context) {
+        if (instance == null) {
+            synchronized (SupabaseResponseCache.class) {
+                if (instance == null) {
+                    File dir = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+                    if (!dir.exists() && !dir.mkdirs()) {
+                        Log.w(TAG, "Could not create cache directory " + dir);
+                    }
+                    instance = new SupabaseResponseCache(dir, MAX_BYTES);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public static String key(String url, String identity) {
+        return Digests.sha1(normalizeUrl(url) + "|" + (identity == null ? "anon" : identity));
+    }
+
+    static String normalizeUrl(String url) {
+        Uri uri = Uri.parse(url);
+        List<String> names = new ArrayList<>(uri.getQueryParameterNames());
+        Collections.sort(names);
+
+        Uri.Builder builder = uri.buildUpon().clearQuery();
+        for (String name : names) {
+            List<String> values = new ArrayList<>(uri.getQueryParameters(name));
+            Collections.sort(values);
+            for (String value : values) {
+                builder.appendQueryParameter(name, value);
+            }
+        }
+        return builder.build().toString();
+    }
+
+    public synchronized Entry get(String key) {
+        File body = new File(directory, key + BODY_SUFFIX);
+        File meta = new File(directory, key + META_SUFFIX);
+        if (!body.exists() || !meta.exists()) {
+            return null;
+        }
+
+        try {
+            JSONObject json = new JSONObject(new String(readFile(meta), StandardCharsets.UTF_8));
+            return new Entry(
+                key,
+                json.optString("etag", null),
+                json.optString("lastModified", null),
+                body
+            );
+        } catch (Exception ex) {
+            Log.w(TAG, "Dropping unreadable cache entry " + key, ex);
+            remove(key);
+            return null;
+        }
+    }
+
+    public Editor edit(String key) {
+        return new Editor(key, new File(directory, key + "." + System.nanoTime() + ".tmp"));
+    }
+
+    private synchronized void commit(Editor editor, String etag, String lastModified) {
+        File body = new File(directory, editor.key + BODY_SUFFIX);
+        File meta = new File(directory, editor.key + META_SUFFIX);
+        try {
+            JSONObject json = new JSONObject();
+            json.put("etag", etag);
+            json.put("lastModified", lastModified);
+            json.put("storedAt", System.currentTimeMillis());
+            if (!editor.temp.renameTo(body)) {
+                throw new IllegalStateException("Could not move " + editor.temp + " into place");
+            }
+            writeFile(meta, json.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (Exception ex) {
+            Log.w(TAG, "Could not store cache entry " + editor.key, ex);
+            editor.temp.delete();
+            remove(editor.key);
+            return;
+        }
+
+        trimToSize();
+    }
+
+    public synchronized void touch(Entry entry) {
+        long now = System.currentTimeMillis();
+        entry.body.setLastModified(now);
+        new File(directory, entry.key + META_SUFFIX).setLastModified(now);
+    }
+
+    public synchronized void remove(String key) {
+        new File(directory, key + BODY_SUFFIX).delete();
+        new File(directory, key + META_SUFFIX).delete();
+    }
+
+    public synchronized void clear() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private void trimToSize() {
+        File[] bodies = directory.listFiles((dir, name) -> name.endsWith(BODY_SUFFIX));
+        if (bodies == null) {
+            return;
+        }
+
+        long total = 0;
+        for (File file : bodies) {
+            total += file.length();
+        }
+        if (total <= maxBytes) {
+            return;
+        }
+
+        Arrays.sort(bodies, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : bodies) {
+            if (total <= maxBytes) {
+                break;
+            }
+            total -= file.length();
+            String name = file.getName();
+            remove(name.substring(0, name.length() - BODY_SUFFIX.length()));
+        }
+    }
+
+    public InputStream openBody(Entry entry) throws Exception {
+        return new FileInputStream(entry.body);
+    }
+
+    private static byte[] readFile(File file) throws Exception {
+        try (InputStream input = new FileInputStream(file)) {
+            byte[] data = new byte[(int) file.length()];
+            int offset = 0;
+            int read;
+            while (offset < data.length && (read = input.read(data, offset, data.length - offset)) != -1) {
+                offset += read;
+            }
+            return data;
+        }
+    }
+
+    private static void writeFile(File file, byte[] data) throws Exception {
+        File temp = new File(file.getPath() + ".tmp");
+        try (OutputStream output = new FileOutputStream(temp)) {
+            output.write(data);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IllegalStateException("Could not move " + temp + " into place");
+        }
+    }
+
+    /**
+     * Copies a response body to a temp file while it is being parsed so the network stream is
+     * only read once. The entry becomes visible on {@link #commit}; anything else discards it.
+     */
+    public class Editor {
+
+        private final String key;
+        private final File temp;
+        private OutputStream output;
+        private boolean failed = false;
+
+        Editor(String key, File temp) {
+            this.key = key;
+            this.temp = temp;
+        }
+
+        public InputStream wrap(InputStream source) {
+            try {
+                output = new FileOutputStream(temp);
+            } catch (Exception ex) {
+                Log.w(TAG, "Could not open cache temp file " + temp, ex);
+                failed = true;
+                return source;
+            }
+
+            return new FilterInputStream(source) {
+                @Override
+                public int read() throws IOException {
+                    int value = super.read();
+                    if (value != -1) {
+                        copy(new byte[] { (byte) value }, 0, 1);
+                    }
+                    return value;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int count = super.read(buffer, offset, length);
+                    if (count > 0) {
+                        copy(buffer, offset, count);
+                    }
+                    return count;
+                }
+            };
+        }
+
+        private void copy(byte[] buffer, int offset, int count) {
+            if (failed) {
+                return;
+            }
+            try {
+                output.write(buffer, offset, count);
+            } catch (IOException ex) {
+                Log.w(TAG, "Could not write cache temp file " + temp, ex);
+                failed = true;
+            }
+        }
+
+        public void commit(String etag, String lastModified) {
+            boolean hasValidator = (etag != null && !etag.isEmpty()) ||
+                (lastModified != null && !lastModified.isEmpty());
+            if (!closeOutput() || failed || !hasValidator) {
+                abort();
+                return;
+            }
+            SupabaseResponseCache.this.commit(this, etag, lastModified);
+        }
+
+        public void abort() {
+            closeOutput();
+            temp.delete();
+        }
+
+        private boolean closeOutput() {
+            if (output == null) {
+                return false;
+            }
+            try {
+                output.close();
+                return true;
+            } catch (IOException ex) {
+                failed = true;
+                return false;
+            } finally {
+                output = null;
+            }
+        }
+    }
+
+    public static class Entry {
+
+        public final String key;
+        public final String etag;
+        public final String lastModified;
+        public final File body;
+
+        Entry(String key, String etag, String lastModified, File body) {
+            this.key = key;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+}
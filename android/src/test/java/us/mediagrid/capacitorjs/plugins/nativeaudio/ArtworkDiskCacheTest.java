@@ -0,0 +1,153 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArtworkDiskCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("artwork");
+    }
+
+    @Test
+    public void reopen_replaysStoredEntries() {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(3), "\"etag-a\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+        cache.put("https://b", bytes(5), null, null);
+
+        ArtworkDiskCache reopened = new ArtworkDiskCache(directory);
+        ArtworkDiskCache.Entry a = reopened.get("https://a");
+        assertNotNull(a);
+        assertEquals(3, a.size);
+        assertEquals("\"etag-a\"", a.etag);
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", a.lastModified);
+        assertTrue(reopened.file(a).exists());
+        ArtworkDiskCache.Entry b = reopened.get("https://b");
+        assertNotNull(b);
+        assertNull(b.etag);
+    }
+
+    @Test
+    public void reopen_compactsToOnePutPerLiveEntry() throws IOException {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(3), "\"v1\"", null);
+        cache.put("https://a", bytes(4), "\"v2\"", null);
+        cache.put("https://b", bytes(5), null, null);
+        cache.get("https://a");
+        cache.put("https://c", bytes(6), null, null);
+        assertTrue(journal().size() > 3);
+
+        ArtworkDiskCache reopened = new ArtworkDiskCache(directory);
+        List<String> lines = journal();
+        assertEquals(3, lines.size());
+        for (String line : lines) {
+            assertTrue(line.startsWith("PUT\t"));
+        }
+        assertEquals("\"v2\"", reopened.get("https://a").etag);
+        assertEquals(4, reopened.get("https://a").size);
+    }
+
+    @Test
+    public void reopen_keepsReadOrder() throws IOException {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(1), null, null);
+        cache.put("https://b", bytes(1), null, null);
+        cache.put("https://c", bytes(1), null, null);
+        cache.get("https://a");
+        // The next write carries the buffered read into the journal ahead of it
+        cache.put("https://d", bytes(1), null, null);
+
+        new ArtworkDiskCache(directory);
+        assertEquals(
+            Arrays.asList(key("https://b"), key("https://c"), key("https://a"), key("https://d")),
+            journalKeys()
+        );
+    }
+
+    @Test
+    public void reads_areBufferedUntilTheNextWrite() throws IOException {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(1), null, null);
+        int before = journal().size();
+
+        cache.get("https://a");
+        assertEquals(before, journal().size());
+
+        cache.put("https://b", bytes(1), null, null);
+        List<String> lines = journal();
+        assertEquals("READ\t" + key("https://a"), lines.get(lines.size() - 2));
+    }
+
+    @Test
+    public void reopen_ignoresATornLastLine() throws IOException {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(2), null, null);
+        try (Writer writer = new FileWriter(new File(directory, "journal"), true)) {
+            writer.write("PUT\t" + key("https://b") + "\t12");
+        }
+
+        ArtworkDiskCache reopened = new ArtworkDiskCache(directory);
+        assertNotNull(reopened.get("https://a"));
+        assertFalse(reopened.contains("https://b"));
+    }
+
+    @Test
+    public void reopen_dropsEntriesWithoutDataAndFilesWithoutEntries() throws IOException {
+        ArtworkDiskCache cache = new ArtworkDiskCache(directory);
+        cache.put("https://a", bytes(2), null, null);
+        cache.put("https://b", bytes(2), null, null);
+        assertTrue(cache.file(cache.get("https://a")).delete());
+        File stray = new File(directory, key("https://stray") + ".img");
+        Files.write(stray.toPath(), bytes(2));
+
+        ArtworkDiskCache reopened = new ArtworkDiskCache(directory);
+        assertFalse(reopened.contains("https://a"));
+        assertTrue(reopened.contains("https://b"));
+        assertFalse(stray.exists());
+    }
+
+    private List<String> journal() throws IOException {
+        return Files.readAllLines(new File(directory, "journal").toPath(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> journalKeys() throws IOException {
+        List<String> keys = new ArrayList<>();
+        for (String line : journal()) {
+            keys.add(line.split("\t", -1)[1]);
+        }
+        return keys;
+    }
+
+    private static String key(String url) {
+        return ArtworkDiskCache.key(url);
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) size);
+        return data;
+    }
+}
@@ -0,0 +1,103 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.junit.Test;
+
+public class ArtworkTranscoderTest {
+
+    private static final int MAX_DIM_PX = 256;
+    private static final int MAX_BYTES = 1024;
+
+    @Test
+    public void sampleSize_neverSubsamplesBelowTheTarget() {
+        assertEquals(1, ArtworkTranscoder.sampleSize(200, MAX_DIM_PX));
+        assertEquals(1, ArtworkTranscoder.sampleSize(511, MAX_DIM_PX));
+        assertEquals(2, ArtworkTranscoder.sampleSize(512, MAX_DIM_PX));
+        assertEquals(2, ArtworkTranscoder.sampleSize(1000, MAX_DIM_PX));
+        assertEquals(8, ArtworkTranscoder.sampleSize(3000, MAX_DIM_PX));
+    }
+
+    @Test
+    public void read_presizedBufferKeepsTheWholeBody() throws Exception {
+        ArtworkTranscoder transcoder = new ArtworkTranscoder(MAX_DIM_PX, 80, MAX_BYTES);
+        byte[] body = bytes(300);
+
+        ArtworkTranscoder.Buffer buffer = transcoder.read(stream(body), body.length);
+
+        assertArrayEquals(body, buffer.toByteArray());
+    }
+
+    @Test
+    public void read_growsAnUndersizedBuffer() throws Exception {
+        ArtworkTranscoder transcoder = new ArtworkTranscoder(MAX_DIM_PX, 80, MAX_BYTES);
+        byte[] body = bytes(700);
+
+        ArtworkTranscoder.Buffer buffer = transcoder.read(stream(body), 100);
+
+        assertArrayEquals(body, buffer.toByteArray());
+    }
+
+    @Test
+    public void read_rejectsBodiesOverTheLimit() throws Exception {
+        ArtworkTranscoder transcoder = new ArtworkTranscoder(MAX_DIM_PX, 80, MAX_BYTES);
+
+        assertNull(transcoder.read(stream(bytes(10)), MAX_BYTES + 1));
+        assertNull(transcoder.read(stream(bytes(MAX_BYTES + 1)), 100));
+    }
+
+    @Test
+    public void pool_handsOutTheSmallestArrayThatFits() {
+        ArtworkTranscoder.ByteArrayPool pool = new ArtworkTranscoder.ByteArrayPool(1000);
+        byte[] small = new byte[100];
+        byte[] large = new byte[400];
+        pool.release(large);
+        pool.release(small);
+
+        assertSame(small, pool.acquire(50));
+        assertSame(large, pool.acquire(50));
+        assertEquals(50, pool.acquire(50).length);
+    }
+
+    @Test
+    public void pool_dropsTheSmallestArraysToStayUnderItsCeiling() {
+        ArtworkTranscoder.ByteArrayPool pool = new ArtworkTranscoder.ByteArrayPool(1000);
+        byte[] small = new byte[200];
+        byte[] medium = new byte[300];
+        byte[] large = new byte[600];
+        pool.release(small);
+        pool.release(medium);
+        pool.release(large);
+
+        assertSame(medium, pool.acquire(1));
+        assertSame(large, pool.acquire(1));
+        assertNotSame(small, pool.acquire(1));
+    }
+
+    @Test
+    public void pool_ignoresArraysLargerThanItsCeiling() {
+        ArtworkTranscoder.ByteArrayPool pool = new ArtworkTranscoder.ByteArrayPool(1000);
+        byte[] huge = new byte[2000];
+        pool.release(huge);
+
+        assertNotSame(huge, pool.acquire(1500));
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private static InputStream stream(byte[] data) {
+        return new ByteArrayInputStream(data);
+    }
+}
@@ -0,0 +1,53 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.media3.common.MediaItem;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class AudioSourceTest {
+
+    private static final String SIGNED =
+        "https://x.supabase.co/storage/v1/object/sign/audio/e1.mp3?token=";
+
+    @Test
+    public void isItemFor_matchesAnUnsignedSourceByUri() {
+        String source = "https://cdn.example/e1.mp3";
+
+        assertTrue(AudioSource.isItemFor(source, item(source)));
+        assertFalse(AudioSource.isItemFor(source, item("https://cdn.example/e2.mp3")));
+    }
+
+    @Test
+    public void isItemFor_matchesAnAssetSourceByUri() {
+        String source = "public/assets/intro.mp3";
+
+        assertTrue(AudioSource.isItemFor(source, item(source)));
+        assertFalse(AudioSource.isItemFor(source, item(SIGNED + "a")));
+    }
+
+    @Test
+    public void isItemFor_matchesASignedSourceAcrossTokens() {
+        assertTrue(AudioSource.isItemFor(SIGNED + "b", item(SIGNED + "a")));
+        assertFalse(AudioSource.isItemFor(SIGNED + "a", item("https://cdn.example/e1.mp3")));
+    }
+
+    @Test
+    public void isItemFor_rejectsItemsWithoutAUri() {
+        MediaItem item = new MediaItem.Builder().setMediaId("library/e1").build();
+
+        assertFalse(AudioSource.isItemFor("https://cdn.example/e1.mp3", item));
+        assertFalse(AudioSource.isItemFor(null, item));
+    }
+
+    private static MediaItem item(String source) {
+        return new MediaItem.Builder()
+            .setUri(source)
+            .setCustomCacheKey(MediaCache.sourceKey(source))
+            .build();
+    }
+}
@@ -0,0 +1,44 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BufferProfileTest {
+
+    @Test
+    public void fromId_findsEveryProfileByItsId() {
+        for (BufferProfile profile : BufferProfile.values()) {
+            assertSame(profile, BufferProfile.fromId(profile.id, BufferProfile.LOW_MEMORY));
+        }
+    }
+
+    @Test
+    public void fromId_nullFallsBack() {
+        assertSame(BufferProfile.PODCAST, BufferProfile.fromId(null, BufferProfile.PODCAST));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromId_rejectsAnUnknownId() {
+        BufferProfile.fromId("PODCAST", BufferProfile.FAST_START);
+    }
+
+    @Test
+    public void defaultFor_picksByRole() {
+        assertEquals(BufferProfile.BACKGROUND_MUSIC, BufferProfile.defaultFor(true));
+        assertEquals(BufferProfile.FAST_START, BufferProfile.defaultFor(false));
+    }
+
+    // DefaultLoadControl.Builder rejects durations out of this order when the player is built
+    @Test
+    public void everyProfile_ordersItsDurationsTheWayTheLoadControlRequires() {
+        for (BufferProfile profile : BufferProfile.values()) {
+            assertTrue(profile.id, profile.bufferForPlaybackMs <= profile.minBufferMs);
+            assertTrue(profile.id, profile.bufferForPlaybackAfterRebufferMs <= profile.minBufferMs);
+            assertTrue(profile.id, profile.minBufferMs <= profile.maxBufferMs);
+            assertTrue(profile.id, profile.targetBufferBytes > 0);
+        }
+    }
+}
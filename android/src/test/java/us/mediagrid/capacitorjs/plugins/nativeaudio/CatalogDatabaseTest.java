@@ -0,0 +1,224 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class CatalogDatabaseTest {
+
+    private Context context;
+    private CatalogDatabase database;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        database = new CatalogDatabase(context, null);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void replaceEpisodes_servesPagesInShelfOrder() {
+        database.replaceEpisodes("latest", 2, 0, Arrays.asList(episode("e1"), episode("e2")));
+        database.replaceEpisodes("latest", 2, 2, Arrays.asList(episode("e3"), episode("e4")));
+
+        assertEquals(Arrays.asList("e1", "e2"), ids(database.loadEpisodes("latest", 2, 0)));
+        assertEquals(Arrays.asList("e3", "e4"), ids(database.loadEpisodes("latest", 2, 2)));
+        assertEquals(Arrays.asList("e2", "e3"), ids(database.loadEpisodes("latest", 2, 1)));
+    }
+
+    @Test
+    public void replaceEpisodes_shortPageDropsTheStaleTail() {
+        database.replaceEpisodes("latest", 2, 0, Arrays.asList(episode("e1"), episode("e2")));
+        database.replaceEpisodes("latest", 2, 2, Arrays.asList(episode("e3"), episode("e4")));
+
+        database.replaceEpisodes("latest", 2, 0, Arrays.asList(episode("e5")));
+
+        assertEquals(Arrays.asList("e5"), ids(database.loadEpisodes("latest", 10, 0)));
+    }
+
+    @Test
+    public void clearShelves_prunesEpisodesNothingElseReferences() {
+        database.replaceEpisodes("continue/u1", 10, 0, Arrays.asList(episode("e1"), episode("e2")));
+        database.replaceEpisodes("latest", 10, 0, Arrays.asList(episode("e2")));
+        database.replacePlaylistItems("p1", 10, 0, Arrays.asList(episode("e3")));
+        database.replaceEpisodes("continue/u2", 10, 0, Arrays.asList(episode("e3")));
+
+        database.clearShelves("continue/");
+
+        assertNull(database.loadEpisode("e1"));
+        assertNotNull(database.loadEpisode("e2"));
+        assertNotNull(database.loadEpisode("e3"));
+        assertEquals(0, database.loadEpisodes("continue/u1", 10, 0).size());
+    }
+
+    @Test
+    public void open_prunesEpisodesLeftWithoutAShelf() {
+        CatalogDatabase file = new CatalogDatabase(context, "catalog-test.db");
+        try {
+            file.replaceEpisodes("latest", 10, 0, Arrays.asList(episode("e1")));
+            file.mergeEpisodes(Arrays.asList(episode("e2")));
+            assertNotNull(file.loadEpisode("e2"));
+        } finally {
+            file.close();
+        }
+
+        CatalogDatabase reopened = new CatalogDatabase(context, "catalog-test.db");
+        try {
+            assertNotNull(reopened.loadEpisode("e1"));
+            assertNull(reopened.loadEpisode("e2"));
+        } finally {
+            reopened.close();
+            context.deleteDatabase("catalog-test.db");
+        }
+    }
+
+    @Test
+    public void search_matchesWordPrefixesInAnyOrder() {
+        database.mergeEpisodes(
+            Arrays.asList(episode("e1", "Morning meditation practice", "", "Calm", "2024-01-01"))
+        );
+
+        assertEquals(Arrays.asList("e1"), hitIds(database.search("prac morn")));
+        assertEquals(Arrays.asList("e1"), hitIds(database.search("Meditation!")));
+        assertTrue(database.search("meditations").isEmpty());
+    }
+
+    @Test
+    public void search_ranksTitleOverPodcastTitleOverSummary() {
+        database.mergeEpisodes(
+            Arrays.asList(
+                episode("summary", "Weekly notes", "From the garden", "Show", "2024-03-01"),
+                episode("podcast", "Weekly notes", "", "Garden hour", "2024-02-01"),
+                episode("title", "Garden tour", "", "Show", "2024-01-01")
+            )
+        );
+
+        assertEquals(
+            Arrays.asList("title", "podcast", "summary"),
+            hitIds(database.search("garden"))
+        );
+    }
+
+    @Test
+    public void search_newerRowsWinTies() {
+        database.mergeEpisodes(
+            Arrays.asList(
+                episode("old", "Garden tour", "", "Show", "2023-01-01"),
+                episode("new", "Garden tour", "", "Show", "2024-01-01")
+            )
+        );
+
+        assertEquals(Arrays.asList("new", "old"), hitIds(database.search("garden")));
+    }
+
+    @Test
+    public void mergeEpisodes_reindexesChangedText() {
+        database.mergeEpisodes(Arrays.asList(episode("e1", "Garden tour", "", "Show", "2024")));
+        database.mergeEpisodes(Arrays.asList(episode("e1", "Kitchen tour", "", "Show", "2024")));
+
+        assertTrue(database.search("garden").isEmpty());
+        assertEquals(Arrays.asList("e1"), hitIds(database.search("kitchen")));
+    }
+
+    @Test
+    public void mergePlaylists_unlistedPlaylistLeavesTheIndex() {
+        database.mergePlaylists(Arrays.asList(playlist("p1", "Garden series", true)));
+        assertNotNull(database.loadPlaylist("p1"));
+        assertEquals(Arrays.asList("p1"), hitIds(database.search("garden")));
+
+        database.mergePlaylists(Arrays.asList(playlist("p1", "Garden series", false)));
+
+        assertNull(database.loadPlaylist("p1"));
+        assertTrue(database.search("garden").isEmpty());
+    }
+
+    @Test
+    public void mergeSearchEpisodes_pinsResultsThroughClearShelves() {
+        database.mergeSearchEpisodes(
+            Arrays.asList(episode("e1", "Garden tour", "", "Show", "2024-01-01"))
+        );
+
+        database.clearShelves("continue/");
+
+        assertNotNull(database.loadEpisode("e1"));
+        assertEquals(Arrays.asList("e1"), hitIds(database.search("garden")));
+    }
+
+    @Test
+    public void toMatchExpression_prefixesEachWordAndDropsPunctuation() {
+        assertEquals("rock* n* roll*", CatalogDatabase.toMatchExpression("Rock 'n' Roll"));
+        assertNull(CatalogDatabase.toMatchExpression(" -- "));
+        assertNull(CatalogDatabase.toMatchExpression(null));
+    }
+
+    private static SupabaseApi.AutoEpisode episode(String id) {
+        return new SupabaseApi.AutoEpisode(
+            id,
+            "Episode " + id,
+            "Summary of " + id,
+            null,
+            "https://cdn.example/" + id + ".mp3",
+            "2024-01-01T00:00:00+00:00",
+            "pod-1",
+            "Podcast",
+            null
+        );
+    }
+
+    private static SupabaseApi.AutoEpisode episode(
+        String id,
+        String title,
+        String summary,
+        String podcastTitle,
+        String publishedAt
+    ) {
+        return new SupabaseApi.AutoEpisode(
+            id,
+            title,
+            summary,
+            null,
+            "https://cdn.example/" + id + ".mp3",
+            publishedAt,
+            "pod-" + podcastTitle,
+            podcastTitle,
+            null
+        );
+    }
+
+    private static SupabaseApi.AutoPlaylist playlist(String id, String title, boolean listed) {
+        return new SupabaseApi.AutoPlaylist(id, title, "", null, "series", "2024-01-01", listed);
+    }
+
+    private static List<String> ids(List<SupabaseApi.AutoEpisode> episodes) {
+        List<String> ids = new ArrayList<>();
+        for (SupabaseApi.AutoEpisode episode : episodes) {
+            ids.add(episode.id);
+        }
+        return ids;
+    }
+
+    private static List<String> hitIds(List<CatalogDatabase.SearchHit> hits) {
+        List<String> ids = new ArrayList<>();
+        for (CatalogDatabase.SearchHit hit : hits) {
+            ids.add(hit.id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,93 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MS = 1000;
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        now = 10_000;
+        breaker = new CircuitBreaker(THRESHOLD, OPEN_MS, () -> now);
+    }
+
+    @Test
+    public void allowsRequests_belowThreshold() {
+        for (int i = 0; i < THRESHOLD - 1; i++) {
+            assertTrue(breaker.allowRequest());
+            breaker.recordFailure();
+        }
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void success_resetsConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void opens_afterThresholdFailures() {
+        open();
+        assertFalse(breaker.allowRequest());
+        now += OPEN_MS - 1;
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpen_letsOneProbeThrough() {
+        open();
+        now += OPEN_MS;
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void successfulProbe_closes() {
+        open();
+        now += OPEN_MS;
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbe_reopensForAnotherInterval() {
+        open();
+        now += OPEN_MS;
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+        now += OPEN_MS;
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void releasedProbe_letsTheNextCallProbe() {
+        open();
+        now += OPEN_MS;
+        assertTrue(breaker.allowRequest());
+        breaker.releaseProbe();
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+    }
+
+    private void open() {
+        for (int i = 0; i < THRESHOLD; i++) {
+            breaker.recordFailure();
+        }
+    }
+}
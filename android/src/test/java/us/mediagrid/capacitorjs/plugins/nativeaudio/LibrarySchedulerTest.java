@@ -0,0 +1,132 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LibrarySchedulerTest {
+
+    private static final long TIMEOUT_S = 5;
+
+    private LibraryScheduler scheduler;
+    private CountDownLatch end;
+
+    @Before
+    public void setUp() {
+        scheduler = new LibraryScheduler("test", 2);
+        end = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        end.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void queuedWork_runsByLaneThenSubmissionOrder() throws Exception {
+        // One worker stays busy throughout, so the other runs the queue one task at a time
+        CountDownLatch busy = new CountDownLatch(2);
+        CountDownLatch gate = new CountDownLatch(1);
+        scheduler.execute(LibraryScheduler.Priority.BROWSE, () -> {
+            busy.countDown();
+            await(end);
+        });
+        scheduler.execute(LibraryScheduler.Priority.PLAYBACK, () -> {
+            busy.countDown();
+            await(gate);
+        });
+        assertTrue(busy.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        ListenableFuture<String> b1 = submit(LibraryScheduler.Priority.BACKGROUND, "b1", order);
+        submit(LibraryScheduler.Priority.BROWSE, "r1", order);
+        submit(LibraryScheduler.Priority.PLAYBACK, "p1", order);
+        submit(LibraryScheduler.Priority.BACKGROUND, "b2", order);
+        submit(LibraryScheduler.Priority.PLAYBACK, "p2", order);
+        ListenableFuture<String> r2 = submit(LibraryScheduler.Priority.BROWSE, "r2", order);
+
+        gate.countDown();
+        r2.get(TIMEOUT_S, TimeUnit.SECONDS);
+        b1.get(TIMEOUT_S, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("p1", "p2", "r1", "r2", "b1"), order.subList(0, 5));
+    }
+
+    @Test
+    public void backgroundWork_neverTakesTheLastThread() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean secondStarted = new AtomicBoolean(false);
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> {
+            started.countDown();
+            await(end);
+        });
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+        scheduler.execute(LibraryScheduler.Priority.BACKGROUND, () -> secondStarted.set(true));
+
+        ListenableFuture<String> playback = scheduler.submit(
+            LibraryScheduler.Priority.PLAYBACK,
+            null,
+            () -> "played"
+        );
+
+        assertEquals("played", playback.get(TIMEOUT_S, TimeUnit.SECONDS));
+        assertFalse(secondStarted.get());
+    }
+
+    @Test
+    public void cancelledTag_dropsQueuedWork() throws Exception {
+        CountDownLatch busy = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            scheduler.execute(LibraryScheduler.Priority.PLAYBACK, () -> {
+                busy.countDown();
+                await(end);
+            });
+        }
+        assertTrue(busy.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean(false);
+        ListenableFuture<Boolean> dropped = scheduler.submit(
+            LibraryScheduler.Priority.BROWSE,
+            "browser|node#",
+            () -> ran.getAndSet(true)
+        );
+        scheduler.cancel("browser|");
+
+        assertTrue(dropped.isCancelled());
+        end.countDown();
+        scheduler.submit(LibraryScheduler.Priority.BROWSE, null, () -> true)
+            .get(TIMEOUT_S, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+    }
+
+    private ListenableFuture<String> submit(
+        LibraryScheduler.Priority priority,
+        String name,
+        List<String> order
+    ) {
+        return scheduler.submit(priority, null, () -> {
+            order.add(name);
+            return name;
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
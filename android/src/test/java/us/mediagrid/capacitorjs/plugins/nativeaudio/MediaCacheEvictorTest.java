@@ -0,0 +1,121 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.media3.common.C;
+import androidx.media3.datasource.cache.Cache;
+import androidx.media3.datasource.cache.CacheSpan;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class MediaCacheEvictorTest {
+
+    private static final long MAX_BYTES = 100;
+
+    private final List<String> removed = new ArrayList<>();
+    private MediaCache.Evictor evictor;
+    private Cache cache;
+
+    @Test
+    public void spanAdded_evictsTheOldestSpansUntilUnderTheLimit() {
+        open(true);
+        add("a", 40, 1);
+        add("b", 40, 2);
+
+        add("c", 40, 3);
+
+        assertEquals(Arrays.asList("a"), removed);
+    }
+
+    @Test
+    public void lru_touchMovesASpanBehindTheOthers() {
+        open(true);
+        CacheSpan a = add("a", 40, 1);
+        add("b", 40, 2);
+        evictor.onSpanTouched(cache, a, span("a", 40, 3));
+
+        add("c", 40, 4);
+
+        assertEquals(Arrays.asList("b"), removed);
+    }
+
+    @Test
+    public void touches_areRequestedOnlyForLru() {
+        open(false);
+        assertFalse(evictor.requiresCacheSpanTouches());
+
+        open(true);
+        assertTrue(evictor.requiresCacheSpanTouches());
+    }
+
+    @Test
+    public void startFile_makesRoomForAKnownLength() {
+        open(true);
+        add("a", 40, 1);
+        add("b", 40, 2);
+
+        evictor.onStartFile(cache, "c", 0, 40);
+
+        assertEquals(Arrays.asList("a"), removed);
+    }
+
+    @Test
+    public void startFile_ignoresAnUnknownLength() {
+        open(true);
+        add("a", 40, 1);
+        add("b", 40, 2);
+
+        evictor.onStartFile(cache, "c", 0, C.LENGTH_UNSET);
+
+        assertEquals(Collections.emptyList(), removed);
+    }
+
+    @Test
+    public void shrinkingMaxBytes_evictsOnTheNextPass() {
+        open(true);
+        add("a", 30, 1);
+        add("b", 30, 2);
+        add("c", 30, 3);
+        assertEquals(Collections.emptyList(), removed);
+
+        evictor.maxBytes = 50;
+        evictor.evict(cache, 0);
+
+        assertEquals(Arrays.asList("a", "b"), removed);
+    }
+
+    private void open(boolean touchSpans) {
+        removed.clear();
+        evictor = new MediaCache.Evictor(MAX_BYTES, touchSpans);
+        // Like SimpleCache, removing a span reports it back to the evictor
+        cache = (Cache) Proxy.newProxyInstance(
+            Cache.class.getClassLoader(),
+            new Class<?>[] { Cache.class },
+            (proxy, method, args) -> {
+                if (!"removeSpan".equals(method.getName())) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                CacheSpan span = (CacheSpan) args[0];
+                removed.add(span.key);
+                evictor.onSpanRemoved((Cache) proxy, span);
+                return null;
+            }
+        );
+    }
+
+    private CacheSpan add(String key, long length, long lastTouchTimestamp) {
+        CacheSpan span = span(key, length, lastTouchTimestamp);
+        evictor.onSpanAdded(cache, span);
+        return span;
+    }
+
+    private static CacheSpan span(String key, long length, long lastTouchTimestamp) {
+        return new CacheSpan(key, 0, length, lastTouchTimestamp, null);
+    }
+}
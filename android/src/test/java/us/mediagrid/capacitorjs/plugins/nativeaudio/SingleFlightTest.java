@@ -0,0 +1,156 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private static final long SETTLE_MS = 500;
+    private static final long TIMEOUT_S = 5;
+
+    private volatile long now;
+    private SingleFlight<String> flights;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        now = 10_000;
+        flights = new SingleFlight<>(SETTLE_MS, () -> now);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallers_shareOneLoad() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> first = executor.submit(() ->
+            flights.run("key", () -> {
+                loads.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "value";
+            })
+        );
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+        Future<String> second = startWaiter("key", () -> {
+            loads.incrementAndGet();
+            return "other";
+        });
+
+        release.countDown();
+        assertEquals("value", first.get(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals("value", second.get(TIMEOUT_S, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void ownerFailure_reachesWaitersAndIsNotCached() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("boom");
+
+        Future<String> first = executor.submit(() ->
+            flights.run("key", () -> {
+                started.countDown();
+                release.await();
+                throw failure;
+            })
+        );
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+        Future<String> second = startWaiter("key", () -> "unused");
+
+        release.countDown();
+        assertSame(failure, causeOf(first));
+        assertSame(failure, causeOf(second));
+        assertEquals("fresh", flights.run("key", () -> "fresh"));
+    }
+
+    @Test
+    public void cancelledOwner_handsTheLoadToAWaiter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Thread> owner = new AtomicReference<>();
+
+        Future<String> first = executor.submit(() ->
+            flights.run("key", () -> {
+                owner.set(Thread.currentThread());
+                started.countDown();
+                new CountDownLatch(1).await();
+                return "never";
+            })
+        );
+        assertTrue(started.await(TIMEOUT_S, TimeUnit.SECONDS));
+        Future<String> second = startWaiter("key", () -> "taken over");
+
+        owner.get().interrupt();
+        assertTrue(causeOf(first) instanceof InterruptedException);
+        assertEquals("taken over", second.get(TIMEOUT_S, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void result_isSharedOnlyWithinTheSettleWindow() throws Exception {
+        assertEquals("first", flights.run("key", () -> "first"));
+
+        now += SETTLE_MS;
+        assertEquals("first", flights.run("key", () -> "second"));
+
+        now += 1;
+        assertEquals("third", flights.run("key", () -> "third"));
+    }
+
+    @Test
+    public void differentKeys_loadIndependently() throws Exception {
+        assertEquals("a", flights.run("a", () -> "a"));
+        assertEquals("b", flights.run("b", () -> "b"));
+    }
+
+    // Starts a caller and returns once it is parked on the in-flight load
+    private Future<String> startWaiter(String key, Callable<String> loader)
+        throws InterruptedException {
+        AtomicReference<Thread> waiter = new AtomicReference<>();
+        Future<String> future = executor.submit(() -> {
+            waiter.set(Thread.currentThread());
+            return flights.run(key, loader);
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_S);
+        while (waiter.get() == null || waiter.get().getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) {
+                fail("waiter never blocked on the in-flight load");
+            }
+            Thread.sleep(1);
+        }
+        return future;
+    }
+
+    private static Throwable causeOf(Future<?> future) throws Exception {
+        try {
+            future.get(TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+        fail("expected the load to fail");
+        return null;
+    }
+}
@@ -0,0 +1,157 @@
+package us.mediagrid.capacitorjs.plugins.nativeaudio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class SupabaseResponseCacheTest {
+
+    private static final long MAX_BYTES = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private SupabaseResponseCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("responses");
+        cache = new SupabaseResponseCache(directory, MAX_BYTES);
+    }
+
+    @Test
+    public void committedEntry_keepsValidatorsAndBodyForA304() throws Exception {
+        store("a", "[{\"id\":1}]", "\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+
+        SupabaseResponseCache.Entry entry = cache.get("a");
+        assertNotNull(entry);
+        assertEquals("\"v1\"", entry.etag);
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", entry.lastModified);
+        assertEquals("[{\"id\":1}]", body(entry));
+    }
+
+    @Test
+    public void commit_withoutValidatorStoresNothing() throws Exception {
+        store("a", "[]", null, "");
+
+        assertNull(cache.get("a"));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void abort_discardsTheCopiedBody() throws Exception {
+        SupabaseResponseCache.Editor editor = cache.edit("a");
+        try (InputStream input = editor.wrap(stream("[1,2"))) {
+            input.read(new byte[2]);
+        }
+        editor.abort();
+
+        assertNull(cache.get("a"));
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void trim_evictsTheLeastRecentlyUsedBody() throws Exception {
+        store("a", "a".repeat(40), "\"a\"", null);
+        store("b", "b".repeat(40), "\"b\"", null);
+        age("a", 20_000);
+        age("b", 10_000);
+
+        store("c", "c".repeat(40), "\"c\"", null);
+
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void touch_onA304KeepsTheEntryWhenTrimming() throws Exception {
+        store("a", "a".repeat(40), "\"a\"", null);
+        store("b", "b".repeat(40), "\"b\"", null);
+        age("a", 20_000);
+        age("b", 10_000);
+
+        cache.touch(cache.get("a"));
+        store("c", "c".repeat(40), "\"c\"", null);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void key_ignoresQueryOrderButNotIdentity() {
+        String url = "https://x.supabase.co/rest/v1/episodes?select=id&order=published_at.desc";
+        String reordered =
+            "https://x.supabase.co/rest/v1/episodes?order=published_at.desc&select=id";
+
+        assertEquals(
+            SupabaseResponseCache.key(url, null),
+            SupabaseResponseCache.key(reordered, null)
+        );
+        assertNotEquals(
+            SupabaseResponseCache.key(url, null),
+            SupabaseResponseCache.key(url, "user-1")
+        );
+    }
+
+    @Test
+    public void open_deletesLeftoverTempFiles() throws Exception {
+        File leftover = new File(directory, "a.123.tmp");
+        Files.write(leftover.toPath(), new byte[] { 1 });
+
+        new SupabaseResponseCache(directory, MAX_BYTES);
+
+        assertFalse(leftover.exists());
+    }
+
+    private void store(String key, String body, String etag, String lastModified)
+        throws IOException {
+        SupabaseResponseCache.Editor editor = cache.edit(key);
+        try (InputStream input = editor.wrap(stream(body))) {
+            byte[] buffer = new byte[16];
+            while (input.read(buffer) != -1) {
+                // The editor copies what the parser reads
+            }
+        }
+        editor.commit(etag, lastModified);
+    }
+
+    private void age(String key, long ms) {
+        cache.get(key).body.setLastModified(System.currentTimeMillis() - ms);
+    }
+
+    private String body(SupabaseResponseCache.Entry entry) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = cache.openBody(entry)) {
+            byte[] buffer = new byte[16];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -74,6 +74,19 @@ export interface AudioPlayerPrepareParams extends AudioPlayerDefaultParams {
      */
     isBackgroundMusic?: boolean;
 
+    /**
+     * How much audio to buffer ahead. `fast-start` starts short clips quickly,
+     * `low-memory` keeps the buffer small when several sources exist at once,
+     * `podcast` buffers deeply for long episodes and `background-music` suits looping beds.
+     * Defaults to `background-music` when `isBackgroundMusic = true`, otherwise `fast-start`.
+     *
+     * Only has affect on Android when `useForNotification = false`. The `useForNotification`
+     * source uses `podcast` unless overridden in the `AndroidManifest.xml`.
+     *
+     * @since 3.1.0
+     */
+    bufferProfile?: 'fast-start' | 'low-memory' | 'podcast' | 'background-music';
+
     /**
      * Whether or not to loop other audio like background music
      * while the primary audio (`useForNotification = true`) is playing.
@@ -211,6 +224,223 @@ export interface AutoLoginState {
      */
     isLoggedIn: boolean;
 }
+
+export interface MediaCacheConfig {
+    /**
+     * Maximum size of the media cache in bytes. Values below 16 MB are raised to 16 MB.
+     *
+     * @default 268435456
+     * @since 3.1.0
+     */
+    maxBytes?: number;
+
+    /**
+     * Which cached audio is evicted first when the cache is full.
+     * `lru` evicts what was played least recently, `fifo` what was cached first.
+     *
+     * Takes effect the next time the app starts.
+     *
+     * @default 'lru'
+     * @since 3.1.0
+     */
+    evictionPolicy?: 'lru' | 'fifo';
+}
+
+export interface MediaCacheStats {
+    /**
+     * Bytes of audio currently cached.
+     *
+     * @since 3.1.0
+     */
+    usedBytes: number;
+
+    /**
+     * Maximum size of the media cache in bytes.
+     *
+     * @since 3.1.0
+     */
+    maxBytes: number;
+
+    /**
+     * The configured eviction policy.
+     *
+     * @since 3.1.0
+     */
+    evictionPolicy: 'lru' | 'fifo';
+
+    /**
+     * Number of episodes/sources with cached audio.
+     *
+     * @since 3.1.0
+     */
+    cachedItems: number;
+
+    /**
+     * Bytes played from the cache since the app started.
+     *
+     * @since 3.1.0
+     */
+    cacheHitBytes: number;
+
+    /**
+     * Bytes downloaded for playback since the app started.
+     *
+     * @since 3.1.0
+     */
+    networkBytes: number;
+}
+
+export interface DownloadParams {
+    /**
+     * The ID of the episode. Downloads are keyed by episode, so one episode is downloaded once.
+     *
+     * @since 3.1.0
+     */
+    episodeId: string;
+}
+
+export interface EnqueueDownloadParams extends DownloadParams {
+    /**
+     * The URL of the episode audio.
+     *
+     * @since 3.1.0
+     */
+    url: string;
+
+    /**
+     * The title shown for the episode in the Android Auto "Downloaded" list.
+     *
+     * @since 3.1.0
+     */
+    title?: string;
+
+    /**
+     * The subtitle shown for the episode, usually the podcast title.
+     *
+     * @since 3.1.0
+     */
+    subtitle?: string;
+
+    /**
+     * A URL for the episode artwork. It is cached with the download so it shows offline.
+     *
+     * @since 3.1.0
+     */
+    artworkUrl?: string;
+}
+
+export interface EpisodeDownload {
+    /**
+     * The ID of the episode.
+     *
+     * @since 3.1.0
+     */
+    episodeId: string;
+
+    /**
+     * The URL the episode audio is downloaded from.
+     *
+     * @since 3.1.0
+     */
+    url: string;
+
+    /**
+     * The state of the download.
+     * `queued` includes downloads waiting for a network connection.
+     *
+     * @since 3.1.0
+     */
+    state:
+        | 'queued'
+        | 'downloading'
+        | 'paused'
+        | 'stopped'
+        | 'completed'
+        | 'failed'
+        | 'removing'
+        | 'restarting';
+
+    /**
+     * Bytes downloaded so far.
+     *
+     * @since 3.1.0
+     */
+    bytesDownloaded: number;
+
+    /**
+     * Size of the episode audio in bytes, or -1 if not yet known.
+     *
+     * @since 3.1.0
+     */
+    contentLength: number;
+
+    /**
+     * Download progress from 0 to 100, or -1 if not yet known.
+     *
+     * @since 3.1.0
+     */
+    percentDownloaded: number;
+
+    /**
+     * The title passed to `enqueueDownload`.
+     *
+     * @since 3.1.0
+     */
+    title?: string;
+
+    /**
+     * The subtitle passed to `enqueueDownload`.
+     *
+     * @since 3.1.0
+     */
+    subtitle?: string;
+
+    /**
+     * The artwork URL passed to `enqueueDownload`.
+     *
+     * @since 3.1.0
+     */
+    artworkUrl?: string;
+}
+
+export interface BufferStats {
+    /**
+     * The buffering profile of the audio source.
+     *
+     * @since 3.1.0
+     */
+    profile: 'fast-start' | 'low-memory' | 'podcast' | 'background-music';
+
+    /**
+     * Milliseconds from the last play request (or new item while playing) to the first audio out,
+     * or -1 if nothing has played yet.
+     *
+     * @since 3.1.0
+     */
+    timeToFirstAudioMs: number;
+
+    /**
+     * Bytes of memory the buffer currently holds.
+     *
+     * @since 3.1.0
+     */
+    allocatedBytes: number;
+
+    /**
+     * The most memory the profile lets the buffer hold, in bytes.
+     *
+     * @since 3.1.0
+     */
+    targetBufferBytes: number;
+
+    /**
+     * Milliseconds of audio buffered ahead of the playback position.
+     *
+     * @since 3.1.0
+     */
+    bufferedDurationMs: number;
+}
+
 export interface AudioPlayerPlugin {
     /**
      * Create an audio source to be played.
@@ -330,6 +560,16 @@ export interface AudioPlayerPlugin {
      */
     isPlaying(params: AudioPlayerDefaultParams): Promise<{ isPlaying: boolean }>;
 
+    /**
+     * Get the buffering profile of the audio source with its time to first audio
+     * and the memory its buffer holds.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    getBufferStats(params: AudioPlayerDefaultParams): Promise<BufferStats>;
+
     /**
      * Destroy all resources for the audio source.
      * The audio source with `useForNotification = true` must be destroyed last.
@@ -418,5 +658,82 @@ export interface AudioPlayerPlugin {
      * @since 3.0.0
      */
     setAutoAuthConfig(params: AutoAuthConfig): Promise<void>;
+
+    /**
+     * Get the size, policy and hit/miss counters of the on-disk audio cache.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    getMediaCacheStats(): Promise<MediaCacheStats>;
+
+    /**
+     * Configure the size and eviction policy of the on-disk audio cache.
+     * The settings are persisted.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    setMediaCacheConfig(params: MediaCacheConfig): Promise<void>;
+
+    /**
+     * Remove all cached audio.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    clearMediaCache(): Promise<void>;
+
+    /**
+     * Download an episode for offline playback. At most two episodes download at a time;
+     * the rest wait in a queue that survives app restarts. Interrupted downloads resume where
+     * they stopped. Enqueueing a paused download resumes it.
+     *
+     * Playback of a downloaded episode, in the app and in Android Auto, reads the downloaded copy.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    enqueueDownload(params: EnqueueDownloadParams): Promise<void>;
+
+    /**
+     * Pause an episode download.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    pauseDownload(params: DownloadParams): Promise<void>;
+
+    /**
+     * Resume a paused episode download.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    resumeDownload(params: DownloadParams): Promise<void>;
+
+    /**
+     * Cancel an episode download or delete the downloaded episode.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    removeDownload(params: DownloadParams): Promise<void>;
+
+    /**
+     * Get all episode downloads with their state and progress, most recently updated first.
+     *
+     * Only available on Android.
+     *
+     * @since 3.1.0
+     */
+    getDownloads(): Promise<{ downloads: EpisodeDownload[] }>;
 }
 
@@ -9,6 +9,12 @@ import type {
     AudioPlayerPrepareParams,
     AutoAuthConfig,
     AutoLoginState,
+    BufferStats,
+    DownloadParams,
+    EnqueueDownloadParams,
+    EpisodeDownload,
+    MediaCacheConfig,
+    MediaCacheStats,
 } from './definitions';
 
 export class AudioPlayerWeb extends WebPlugin implements AudioPlayerPlugin {
@@ -73,6 +79,10 @@ export class AudioPlayerWeb extends WebPlugin implements AudioPlayerPlugin {
         throw this.unimplemented('Not implemented on web.');
     }
 
+    getBufferStats(params: AudioPlayerDefaultParams): Promise<BufferStats> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
     destroy(params: AudioPlayerDefaultParams): Promise<void> {
         throw this.unimplemented('Not implemented on web.');
     }
@@ -84,6 +94,38 @@ export class AudioPlayerWeb extends WebPlugin implements AudioPlayerPlugin {
     setAutoAuthConfig(params: AutoAuthConfig): Promise<void> {
         return Promise.resolve();
     }
+
+    getMediaCacheStats(): Promise<MediaCacheStats> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
+    setMediaCacheConfig(params: MediaCacheConfig): Promise<void> {
+        return Promise.resolve();
+    }
+
+    clearMediaCache(): Promise<void> {
+        return Promise.resolve();
+    }
+
+    enqueueDownload(params: EnqueueDownloadParams): Promise<void> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
+    pauseDownload(params: DownloadParams): Promise<void> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
+    resumeDownload(params: DownloadParams): Promise<void> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
+    removeDownload(params: DownloadParams): Promise<void> {
+        throw this.unimplemented('Not implemented on web.');
+    }
+
+    getDownloads(): Promise<{ downloads: EpisodeDownload[] }> {
+        throw this.unimplemented('Not implemented on web.');
+    }
     onAppGainsFocus(
         params: AudioPlayerListenerParams,
         callback: () => void,